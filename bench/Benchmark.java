@@ -0,0 +1,99 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal benchmark harness used by the classes in {@code bench/}.
+ *
+ * <p>Each benchmark runs a warmup phase followed by several timed
+ * measurement iterations. Throughput is reported in operations per second,
+ * and allocation is measured with the per-thread allocation counter of
+ * {@link com.sun.management.ThreadMXBean}, similar to JMH's gc profiler
+ * ({@code gc.alloc.rate} and {@code gc.alloc.rate.norm}).
+ *
+ * <p>Benchmarks run on the calling thread; operations that fan out to other
+ * threads (such as parallel sorts) only have their calling thread's
+ * allocation counted.
+ */
+public class Benchmark {
+    /**
+     * A benchmarked operation. The returned value is consumed so the JIT
+     * cannot eliminate the work.
+     */
+    public interface Op {
+        long run();
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Sink for operation results.
+    private static volatile long sink;
+
+    private final long warmupNanos;
+    private final long iterationNanos;
+    private final int iterations;
+
+    /**
+     * Creates a harness.
+     *
+     * @param warmupMillis total warmup time per benchmark
+     * @param iterationMillis time per measurement iteration
+     * @param iterations number of measurement iterations
+     */
+    public Benchmark(long warmupMillis, long iterationMillis, int iterations) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Prints the column header for {@link #run} results.
+     */
+    public static void printHeader() {
+        System.out.printf("%-36s %9s %16s %14s %12s %12s%n",
+            "Benchmark", "size", "ops/s", "ns/op", "B/op", "MB/s alloc");
+    }
+
+    /**
+     * Runs one benchmark and prints a result line.
+     *
+     * @param name the benchmark name
+     * @param size the problem size being measured (book size, list size, ...)
+     * @param op the operation
+     * @return the measured nanoseconds per operation
+     */
+    public double run(String name, int size, Op op) {
+        long acc = 0;
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) {
+            acc += op.run();
+        }
+
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long ops = 0;
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long deadline = start + iterationNanos;
+            long now;
+            do {
+                acc += op.run();
+                ops++;
+                now = System.nanoTime();
+            } while (now < deadline);
+            totalBytes += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            totalNanos += now - start;
+            totalOps += ops;
+        }
+        sink += acc;
+
+        double nanosPerOp = (double) totalNanos / totalOps;
+        double opsPerSecond = totalOps * 1e9 / totalNanos;
+        double bytesPerOp = (double) totalBytes / totalOps;
+        double allocMbPerSecond = totalBytes * 1e9 / totalNanos / (1024 * 1024);
+        System.out.printf("%-36s %9d %16.1f %14.1f %12.1f %12.1f%n",
+            name, size, opsPerSecond, nanosPerOp, bytesPerOp, allocMbPerSecond);
+        return nanosPerOp;
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks for the hot paths of Recipe, RecipeBook and RecipeSorter, and
+ * for loading a book from a snapshot or from JSON.
+ *
+ * <p>Usage:
+ * <pre>
+ * javac -d bin src/*.java bench/*.java
+ * java -cp bin RecipeBenchmarks [--quick] [--sizes=10,1000,100000,1000000]
+ * </pre>
+ *
+ * <p>Book-level benchmarks run once per size. {@code --quick} shortens warmup
+ * and measurement and defaults to small sizes, for a smoke run.
+ */
+public class RecipeBenchmarks {
+    private static final String[] DISHES = {
+        "Chocolate Cake", "Garlic Bread", "Tomato Soup", "Pancakes", "Pasta Aglio e Olio",
+        "Banana Bread", "Apple Pie", "Caesar Salad", "Chicken Curry", "Vanilla Cupcake"
+    };
+    private static final String[] INGREDIENTS = {
+        "flour (cup)", "eggs", "sugar (cup)", "butter (tbsp)", "garlic cloves",
+        "olive oil (cup)", "milk (cup)", "salt (tsp)", "parsley (cup)", "spaghetti (g)"
+    };
+    private static final String[] QUERIES = {"cake", "bread", "soup 12", "curry", "zzz"};
+    private static final String[] MISSPELLED = {"choclate cake", "garlik bread", "tomatoe soup", "chiken cury"};
+
+    public static void main(String[] args) {
+        boolean quick = false;
+        int[] sizes = null;
+        for (String arg : args) {
+            if (arg.equals("--quick")) {
+                quick = true;
+            } else if (arg.startsWith("--sizes=")) {
+                String[] parts = arg.substring("--sizes=".length()).split(",");
+                sizes = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    sizes[i] = Integer.parseInt(parts[i].trim());
+                }
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                return;
+            }
+        }
+        if (sizes == null) {
+            sizes = quick ? new int[] {10, 1000} : new int[] {10, 1000, 100_000, 1_000_000};
+        }
+        Benchmark bench = quick ? new Benchmark(100, 100, 2) : new Benchmark(2000, 1000, 5);
+
+        Benchmark.printHeader();
+        runRecipeBenchmarks(bench);
+        for (int size : sizes) {
+            runBookBenchmarks(bench, size);
+        }
+    }
+
+    private static void runRecipeBenchmarks(Benchmark bench) {
+        bench.run("Recipe.addIngredient (x10)", 10, () -> {
+            Recipe r = new Recipe("Bench", 2);
+            for (int i = 0; i < 10; i++) {
+                r.addIngredient(INGREDIENTS[i], i + 0.25);
+            }
+            return r.totalIngredientCount();
+        });
+
+        Recipe scaled = sampleRecipe("Bench", new Random(1));
+        int[] servings = {2};
+        bench.run("Recipe.scaleToServings", scaled.totalIngredientCount(), () -> {
+            servings[0] = servings[0] == 2 ? 5 : 2;
+            scaled.scaleToServings(servings[0]);
+            return servings[0];
+        });
+
+        Recipe rendered = sampleRecipe("Bench", new Random(2));
+        rendered.scaleToServings(5);
+        bench.run("Recipe.toString", rendered.totalIngredientCount(), () -> rendered.toString().length());
+    }
+
+    private static void runBookBenchmarks(Benchmark bench, int size) {
+        RecipeBook book = buildBook(size, new Random(size));
+        List<Recipe> all = book.getAllRecipes();
+
+        int[] next = {0};
+        bench.run("RecipeBook.searchByName (cached)", size, () -> {
+            String query = QUERIES[next[0]++ % QUERIES.length];
+            return book.searchByName(query).size();
+        });
+
+        book.setSearchCacheCapacity(0);
+        bench.run("RecipeBook.searchByName", size, () -> {
+            String query = QUERIES[next[0]++ % QUERIES.length];
+            return book.searchByName(query).size();
+        });
+
+        // Cache still disabled, so every call goes to the fuzzy index.
+        bench.run("RecipeBook.searchFuzzy", size, () -> {
+            String query = MISSPELLED[next[0]++ % MISSPELLED.length];
+            return book.searchFuzzy(query).size();
+        });
+
+        // Run at several --sizes to find where the parallel scan overtakes the sequential one.
+        book.setParallelScanThreshold(Integer.MAX_VALUE);
+        bench.run("RecipeBook.filter (sequential)", size, () -> book.filter(RecipeBenchmarks::usesGarlic).size());
+        book.setParallelScanThreshold(0);
+        bench.run("RecipeBook.filter (parallel)", size, () -> book.filter(RecipeBenchmarks::usesGarlic).size());
+        book.setParallelScanThreshold(RecipeBook.DEFAULT_PARALLEL_SCAN_THRESHOLD);
+
+        bench.run("RecipeBook.removeRecipe (+re-add)", size, () -> {
+            Recipe r = all.get(next[0]++ % all.size());
+            boolean removed = book.removeRecipe(r.getName());
+            book.addRecipe(r);
+            return removed ? 1 : 0;
+        });
+
+        bench.run("RecipeBook.addRecipe (sorted index, per recipe)", size, () -> {
+            RecipeBook loaded = new RecipeBook(true);
+            for (Recipe r : all) {
+                loaded.addRecipe(r);
+            }
+            return loaded.size();
+        });
+        bench.run("RecipeBook.addAll (sorted index)", size, () -> {
+            RecipeBook loaded = new RecipeBook(all.size(), true);
+            loaded.addAll(all);
+            return loaded.size();
+        });
+
+        bench.run("RecipeSorter.sortByName", size, () -> RecipeSorter.sortByName(all).size());
+        bench.run("RecipeSorter.topByName (k=20)", size, () -> RecipeSorter.topByName(all, 20).size());
+
+        runLoadBenchmarks(bench, book, size);
+    }
+
+    // Compares opening a mapped snapshot against parsing the same book from JSON.
+    private static void runLoadBenchmarks(Benchmark bench, RecipeBook book, int size) {
+        try {
+            Path snapshotFile = Files.createTempFile("bench", ".snap");
+            Path jsonFile = Files.createTempFile("bench", ".json");
+            try {
+                RecipeSnapshot.write(book, snapshotFile);
+                new RecipeJsonWriter().write(book, jsonFile);
+                bench.run("RecipeSnapshot.open", size, () -> {
+                    try {
+                        RecipeSnapshot snapshot = RecipeSnapshot.open(snapshotFile);
+                        return snapshot.get(snapshot.size() - 1).totalIngredientCount();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                bench.run("RecipeJsonReader.read", size, () -> {
+                    try {
+                        return new RecipeJsonReader().read(jsonFile).size();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                Files.deleteIfExists(snapshotFile);
+                Files.deleteIfExists(jsonFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean usesGarlic(Recipe recipe) {
+        for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+            if (recipe.getIngredientName(i).startsWith("garlic")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static RecipeBook buildBook(int size, Random random) {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < size; i++) {
+            book.addRecipe(sampleRecipe(DISHES[random.nextInt(DISHES.length)] + " " + i, random));
+        }
+        return book;
+    }
+
+    static Recipe sampleRecipe(String name, Random random) {
+        Recipe r = new Recipe(name, 2 + random.nextInt(6));
+        List<String> pool = new ArrayList<>(List.of(INGREDIENTS));
+        int count = 3 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            r.addIngredient(pool.remove(random.nextInt(pool.size())), 0.25 + random.nextInt(40) / 4.0);
+        }
+        return r;
+    }
+}
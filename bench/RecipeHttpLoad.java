@@ -0,0 +1,164 @@
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for {@link RecipeHttpService}.
+ *
+ * <p>Starts the service on a loopback port over a generated book, then
+ * keeps a fixed number of requests in flight from an HTTP/1.1 client (one
+ * connection per in-flight request) and reports throughput and latency
+ * percentiles. Requests mix name searches, recipe views, scaled views and
+ * two-recipe carts.
+ *
+ * <p>The service runs on its default pool of platform threads unless
+ * {@code --threads=N} sets another pool size or {@code --virtual-threads}
+ * asks for one virtual thread per request, which needs Java 21 or later.
+ * The report starts with the executor that served the run.
+ *
+ * <p>Usage:
+ * <pre>
+ * javac -d bin src/*.java bench/*.java
+ * java -cp bin RecipeHttpLoad [--connections=1000] [--requests=50000] [--recipes=10000]
+ *                             [--threads=N | --virtual-threads]
+ * </pre>
+ */
+public class RecipeHttpLoad {
+    private static final String[] QUERIES = {"cake", "bread", "soup 12", "curry", "zzz"};
+
+    public static void main(String[] args) throws Exception {
+        int connections = 1000;
+        int requests = 50_000;
+        int recipes = 10_000;
+        int threads = 0;
+        boolean virtualThreads = false;
+        for (String arg : args) {
+            if (arg.startsWith("--connections=")) {
+                connections = Integer.parseInt(arg.substring("--connections=".length()));
+            } else if (arg.startsWith("--requests=")) {
+                requests = Integer.parseInt(arg.substring("--requests=".length()));
+            } else if (arg.startsWith("--recipes=")) {
+                recipes = Integer.parseInt(arg.substring("--recipes=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.equals("--virtual-threads")) {
+                virtualThreads = true;
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                return;
+            }
+        }
+
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        book.addAll(RecipeBenchmarks.buildBook(recipes, new Random(recipes)).getAllRecipes());
+        ExecutorService executor = null;
+        if (virtualThreads) {
+            executor = newVirtualThreadPerTaskExecutor();
+            if (executor == null) {
+                System.err.println("--virtual-threads needs Java 21 or later; this is Java " + Runtime.version().feature());
+                return;
+            }
+        } else if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+        RecipeHttpService service = executor == null
+            ? new RecipeHttpService(book)
+            : new RecipeHttpService(book, executor);
+        service.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                      Math.max(RecipeHttpService.DEFAULT_BACKLOG, connections));
+        try {
+            String base = "http://localhost:" + service.getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String[] paths = samplePaths(book.getAllRecipes(), new Random(1));
+
+            System.out.println("Executor: " + service.getExecutorDescription() + ", Java " + Runtime.version().feature());
+            run(client, base, paths, connections, Math.max(1, requests / 10), false);
+            run(client, base, paths, connections, requests, true);
+        } finally {
+            service.stop();
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    // Looked up reflectively so the benchmark still compiles on Java 17; null if unavailable.
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static void run(HttpClient client, String base, String[] paths, int connections, int requests,
+                            boolean report) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + paths[i % paths.length])).build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                latencies.record(System.nanoTime() - sent);
+                if (failure != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(connections);
+        long elapsed = System.nanoTime() - start;
+        if (!report) {
+            return;
+        }
+
+        long[] counts = latencies.bucketCounts();
+        System.out.printf("Connections: %d, requests: %d, errors: %d%n", connections, requests, errors.get());
+        System.out.printf("Throughput: %.0f requests/s%n", requests / (elapsed / 1e9));
+        System.out.printf("Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                          LatencyHistogram.valueAtPercentile(counts, 50) / 1e6,
+                          LatencyHistogram.valueAtPercentile(counts, 99) / 1e6,
+                          latencies.maxNanos() / 1e6);
+    }
+
+    private static String[] samplePaths(List<Recipe> recipes, Random random) {
+        String[] paths = new String[1024];
+        for (int i = 0; i < paths.length; i++) {
+            String name = encode(recipes.get(random.nextInt(recipes.size())).getName());
+            switch (i % 4) {
+                case 0:
+                    paths[i] = "/recipes?q=" + encode(QUERIES[random.nextInt(QUERIES.length)]);
+                    break;
+                case 1:
+                    paths[i] = "/recipes/" + name.replace("+", "%20");
+                    break;
+                case 2:
+                    paths[i] = "/recipes/" + name.replace("+", "%20") + "?servings=" + (1 + random.nextInt(12));
+                    break;
+                default:
+                    String other = encode(recipes.get(random.nextInt(recipes.size())).getName());
+                    paths[i] = "/cart?recipe=" + name + "&recipe=" + other;
+                    break;
+            }
+        }
+        return paths;
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
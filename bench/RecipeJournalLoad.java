@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares saving a whole book as a {@link RecipeSnapshot} with journaling
+ * single changes through {@link RecipeJournal}, and shows how many changes
+ * share each sync when several threads write at once.
+ *
+ * <p>The journal directory is seeded with a snapshot of a generated book,
+ * so opening it exercises recovery as well. Files go to a temporary
+ * directory on the default file system; sync cost depends heavily on it.
+ *
+ * <p>Usage:
+ * <pre>
+ * javac -d bin src/*.java bench/*.java
+ * java -cp bin RecipeJournalLoad [--recipes=100000] [--changes=2000] [--threads=8]
+ * </pre>
+ */
+public class RecipeJournalLoad {
+    public static void main(String[] args) throws Exception {
+        int recipes = 100_000;
+        int changes = 2000;
+        int threads = 8;
+        for (String arg : args) {
+            if (arg.startsWith("--recipes=")) {
+                recipes = Integer.parseInt(arg.substring("--recipes=".length()));
+            } else if (arg.startsWith("--changes=")) {
+                changes = Integer.parseInt(arg.substring("--changes=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                return;
+            }
+        }
+
+        RecipeBook book = RecipeBenchmarks.buildBook(recipes, new Random(recipes));
+        List<Recipe> all = book.getAllRecipes();
+        Path dir = Files.createTempDirectory("journal-bench");
+        try {
+            long start = System.nanoTime();
+            RecipeSnapshot.write(book, dir.resolve("snapshot-0.bin"));
+            System.out.printf("Full save of %d recipes: %.1f ms%n", recipes, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                System.out.printf("Open and recover: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+                journal.setCompactionThreshold(0);
+
+                run(journal, all, changes, 1);
+                run(journal, all, changes, threads);
+
+                start = System.nanoTime();
+                journal.compact();
+                System.out.printf("Compaction: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    Files.delete(f);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static void run(RecipeJournal journal, List<Recipe> recipes, int changes, int threads)
+            throws InterruptedException {
+        long syncsBefore = journal.syncCount();
+        List<Thread> writers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            int count = changes / threads;
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        String name = recipes.get(random.nextInt(recipes.size())).getName();
+                        journal.scaleToServings(name, 1 + random.nextInt(12));
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        int done = changes / threads * threads;
+        long syncs = journal.syncCount() - syncsBefore;
+        System.out.printf("%d thread(s): %d changes, %.1f us per change, %.0f changes/s, %d syncs (%.1f changes per sync)%n",
+                          threads, done, elapsed / 1e3 / done, done / (elapsed / 1e9), syncs, (double) done / syncs);
+    }
+}
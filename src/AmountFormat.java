@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Formats ingredient amounts for display.
+ *
+ * <p>Formatting rules (see SPEC.md):
+ * <ul>
+ *   <li>Values within {@code 1e-9} of an integer print without decimals: {@code 200}</li>
+ *   <li>Other values print with up to two decimals, rounded half-up, with
+ *       trailing zeros trimmed: {@code 7.5}, {@code 0.63}, {@code 1.33}</li>
+ * </ul>
+ *
+ * <p>The output is identical to {@code String.format("%.2f")} followed by
+ * trimming trailing zeros, but digits are written straight into the caller's
+ * {@link Appendable} so no intermediate strings are created. Values whose
+ * third decimal sits right on a rounding boundary, and very large values,
+ * take the slower {@code String.format} path to guarantee identical output.
+ */
+public class AmountFormat {
+    // Beyond this magnitude, amount * 100 is too coarse for the fast path.
+    private static final double FAST_PATH_LIMIT = 1e9;
+    // How close to a half-cent the scaled value may be before the fast path defers.
+    private static final double HALF_CENT_MARGIN = 1e-4;
+
+    /**
+     * Returns the display form of an amount.
+     *
+     * @param amount the amount to format
+     * @return the formatted amount
+     */
+    public static String format(double amount) {
+        StringBuilder sb = new StringBuilder(12);
+        appendTo(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the display form of an amount to a StringBuilder.
+     *
+     * @param sb the builder to append to
+     * @param amount the amount to format
+     */
+    public static void appendTo(StringBuilder sb, double amount) {
+        try {
+            appendTo((Appendable) sb, amount);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the display form of an amount to any Appendable.
+     *
+     * @param out the destination
+     * @param amount the amount to format
+     * @throws IOException if the destination fails
+     */
+    public static void appendTo(Appendable out, double amount) throws IOException {
+        double rounded = Math.rint(amount);
+        if (Math.abs(amount - rounded) < 1e-9) {
+            if (Math.abs(rounded) < 1e18) {
+                appendLong(out, (long) rounded);
+            } else {
+                out.append(String.valueOf((long) rounded));
+            }
+            return;
+        }
+
+        double magnitude = Math.abs(amount);
+        if (!(magnitude < FAST_PATH_LIMIT)) {
+            appendSlow(out, amount);
+            return;
+        }
+        double scaled = magnitude * 100.0;
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) < HALF_CENT_MARGIN) {
+            appendSlow(out, amount);
+            return;
+        }
+
+        long cents = (long) Math.floor(scaled + 0.5);
+        if (amount < 0) {
+            out.append('-');
+        }
+        appendLong(out, cents / 100);
+        int decimals = (int) (cents % 100);
+        if (decimals != 0) {
+            out.append('.').append((char) ('0' + decimals / 10));
+            if (decimals % 10 != 0) {
+                out.append((char) ('0' + decimals % 10));
+            }
+        }
+    }
+
+    /**
+     * Appends the decimal digits of a long without allocating.
+     *
+     * @param out the destination
+     * @param value the value; must be greater than {@code Long.MIN_VALUE}
+     * @throws IOException if the destination fails
+     */
+    static void appendLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    // Reference implementation used for boundary and out-of-range values.
+    private static void appendSlow(Appendable out, double amount) throws IOException {
+        String s = String.format(Locale.ROOT, "%.2f", amount);
+        if (s.indexOf('.') >= 0) {
+            s = s.replaceAll("0+$", "");
+            s = s.replaceAll("\\.$", "");
+        }
+        out.append(s);
+    }
+}
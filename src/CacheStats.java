@@ -0,0 +1,93 @@
+/**
+ * A point-in-time view of a cache's counters.
+ *
+ * <p>Counters are cumulative since the cache was created.
+ */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int capacity;
+
+    CacheStats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to be computed.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries dropped to stay within capacity.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of times the whole cache was discarded because the
+     * underlying data changed.
+     *
+     * @return the invalidation count
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the number of entries currently cached.
+     *
+     * @return the current size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the fraction of lookups that were hits.
+     *
+     * @return a value between 0 and 1; 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+            + ", invalidations=" + invalidations + ", size=" + size + "/" + capacity;
+    }
+}
@@ -0,0 +1,288 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A thread-safe collection of recipes for many concurrent readers and
+ * occasional writers.
+ *
+ * <p>Reads run against an immutable {@link Snapshot} published through a
+ * volatile field. They take no locks and copy nothing: {@link #getAllRecipes()}
+ * returns an unmodifiable view of the snapshot. Writers are serialized on a
+ * lock. Each write builds the next snapshot and publishes it in a single
+ * step, so every read observes the state after some complete write, in the
+ * order the writes took effect. {@link #addAll(Collection)} publishes a whole
+ * batch at once.
+ *
+ * <p>Snapshots share their arrays. Appends fill unused capacity beyond the
+ * end of the current snapshot, which older snapshots never read, so adding
+ * is amortized constant time. Removal copies the arrays.
+ *
+ * <p>Name matching follows {@link RecipeBook}: exact names are
+ * case-sensitive, and {@link #searchByName(String)} is a case-insensitive
+ * partial match. The book only guards its own structure. Recipes must not
+ * be modified after they are added unless callers synchronize access to
+ * them.
+ */
+public class ConcurrentRecipeBook {
+    private final Object writeLock = new Object();
+    private volatile Snapshot current = new Snapshot(new Recipe[16], new String[16], 0, 0);
+
+    /**
+     * Adds a recipe to the end of the book.
+     *
+     * @param recipe the recipe to add; must not be null
+     * @throws IllegalArgumentException if recipe is null
+     */
+    public void addRecipe(Recipe recipe) {
+        if (recipe == null) {
+            throw new IllegalArgumentException("Recipe must not be null");
+        }
+        synchronized (writeLock) {
+            current = current.append(new Recipe[] {recipe}, 1);
+        }
+    }
+
+    /**
+     * Adds several recipes as one atomic update.
+     *
+     * <p>Readers see either none or all of the batch, in iteration order.
+     *
+     * @param batch the recipes to add; must not be null or contain null
+     * @throws IllegalArgumentException if batch is null or contains null
+     */
+    public void addAll(Collection<Recipe> batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Recipes must not be null");
+        }
+        Recipe[] added = batch.toArray(new Recipe[0]);
+        for (Recipe r : added) {
+            if (r == null) {
+                throw new IllegalArgumentException("Recipe must not be null");
+            }
+        }
+        if (added.length == 0) {
+            return;
+        }
+        synchronized (writeLock) {
+            current = current.append(added, added.length);
+        }
+    }
+
+    /**
+     * Removes the first recipe with the specified name.
+     *
+     * <p>Name matching is case-sensitive.
+     *
+     * @param recipeName the name of the recipe to remove
+     * @return true if a recipe was removed, false if no matching recipe was found
+     */
+    public boolean removeRecipe(String recipeName) {
+        if (recipeName == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            Snapshot s = current;
+            int index = s.indexOf(recipeName);
+            if (index < 0) {
+                return false;
+            }
+            current = s.without(index);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * <p>Use a snapshot to run several reads against one consistent state.
+     *
+     * @return the latest published snapshot
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Returns the first recipe with exactly the specified name.
+     *
+     * @param recipeName the recipe name (case-sensitive)
+     * @return the matching recipe, or null if there is none
+     */
+    public Recipe getRecipe(String recipeName) {
+        return current.getRecipe(recipeName);
+    }
+
+    /**
+     * Returns all recipes in insertion order.
+     *
+     * <p>The list is an unmodifiable view of the current snapshot. Later
+     * writes do not change it.
+     *
+     * @return the recipes at the time of the call
+     */
+    public List<Recipe> getAllRecipes() {
+        return current.getAllRecipes();
+    }
+
+    /**
+     * Returns the number of recipes.
+     *
+     * @return the number of recipes at the time of the call
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Searches for recipes whose name contains the specified query string.
+     *
+     * @param query the search string; case-insensitive
+     * @return a new list of matching recipes, in insertion order
+     */
+    public List<Recipe> searchByName(String query) {
+        return current.searchByName(query);
+    }
+
+    /**
+     * An immutable state of a {@link ConcurrentRecipeBook}.
+     *
+     * <p>A snapshot never changes after it is published, so it can be read
+     * from any thread without locking.
+     */
+    public static final class Snapshot {
+        private final Recipe[] recipes;
+        private final String[] foldedNames;
+        private final int size;
+        private final long version;
+
+        private Snapshot(Recipe[] recipes, String[] foldedNames, int size, long version) {
+            this.recipes = recipes;
+            this.foldedNames = foldedNames;
+            this.size = size;
+            this.version = version;
+        }
+
+        /**
+         * Returns the number of writes published before this snapshot.
+         *
+         * @return the snapshot version; later snapshots have larger versions
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Returns the number of recipes in this snapshot.
+         *
+         * @return the number of recipes
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the recipes in this snapshot, in insertion order.
+         *
+         * @return an unmodifiable view; no copy is made
+         */
+        public List<Recipe> getAllRecipes() {
+            return new RecipeListView(recipes, size);
+        }
+
+        /**
+         * Returns the first recipe with exactly the specified name.
+         *
+         * @param recipeName the recipe name (case-sensitive)
+         * @return the matching recipe, or null if there is none
+         */
+        public Recipe getRecipe(String recipeName) {
+            int index = recipeName == null ? -1 : indexOf(recipeName);
+            return index < 0 ? null : recipes[index];
+        }
+
+        /**
+         * Searches for recipes whose name contains the specified query string.
+         *
+         * @param query the search string; case-insensitive
+         * @return a new list of matching recipes, in insertion order
+         */
+        public List<Recipe> searchByName(String query) {
+            List<Recipe> results = new ArrayList<>();
+            if (query == null || query.isEmpty()) {
+                return results;
+            }
+            String folded = query.toLowerCase();
+            for (int i = 0; i < size; i++) {
+                if (foldedNames[i].contains(folded)) {
+                    results.add(recipes[i]);
+                }
+            }
+            return results;
+        }
+
+        private int indexOf(String recipeName) {
+            for (int i = 0; i < size; i++) {
+                if (recipes[i].getName().equals(recipeName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Called only by the writer holding the lock. Slots at and beyond size
+        // are not visible to this or any older snapshot sharing the arrays.
+        private Snapshot append(Recipe[] added, int count) {
+            Recipe[] r = recipes;
+            String[] f = foldedNames;
+            if (size + count > r.length) {
+                int capacity = Math.max(size + count, size + (size >> 1) + 1);
+                r = Arrays.copyOf(r, capacity);
+                f = Arrays.copyOf(f, capacity);
+            }
+            for (int i = 0; i < count; i++) {
+                r[size + i] = added[i];
+                f[size + i] = added[i].getName().toLowerCase();
+            }
+            return new Snapshot(r, f, size + count, version + 1);
+        }
+
+        private Snapshot without(int index) {
+            int capacity = Math.max(16, size + (size >> 1));
+            Recipe[] r = new Recipe[capacity];
+            String[] f = new String[capacity];
+            System.arraycopy(recipes, 0, r, 0, index);
+            System.arraycopy(foldedNames, 0, f, 0, index);
+            System.arraycopy(recipes, index + 1, r, index, size - index - 1);
+            System.arraycopy(foldedNames, index + 1, f, index, size - index - 1);
+            return new Snapshot(r, f, size - 1, version + 1);
+        }
+    }
+
+    // Unmodifiable list over the first size slots of a snapshot array.
+    private static final class RecipeListView extends AbstractList<Recipe> implements RandomAccess {
+        private final Recipe[] recipes;
+        private final int size;
+
+        RecipeListView(Recipe[] recipes, int size) {
+            this.recipes = recipes;
+            this.size = size;
+        }
+
+        @Override
+        public Recipe get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return recipes[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
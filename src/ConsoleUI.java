@@ -0,0 +1,412 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Console front-end for a {@link RecipeBook}.
+ *
+ * <p>Two modes share one command set:
+ * <ul>
+ *   <li><b>Interactive</b> shows a numbered menu and prompts for input.
+ *       Output is flushed after every command.</li>
+ *   <li><b>Batch</b> reads one command per line from a file or standard
+ *       input and runs them against the same book. It prints no menu or
+ *       prompts, and output goes through one large buffer that is flushed
+ *       only at the end. This keeps scripts of many thousands of commands
+ *       from being dominated by per-line writes.</li>
+ * </ul>
+ *
+ * <p>Commands (the command word is case-insensitive):
+ * <pre>
+ * list                        all recipes, sorted by name
+ * search &lt;query&gt;              recipes matching every word in name or ingredients
+ * search-name &lt;query&gt;         recipes whose name contains the query
+ * search-ingredient &lt;query&gt;   recipes with an ingredient containing the query
+ * view &lt;name | number&gt;        one recipe; a number picks from the latest listing
+ * cart &lt;name&gt;, &lt;name&gt;, ...    combined ingredients of several recipes
+ * load &lt;path&gt;                 add the recipes of a JSON file
+ * save &lt;path&gt;                 write all recipes to a JSON file
+ * help                        this list
+ * exit | quit                 stop
+ * </pre>
+ * In batch mode, blank lines and lines starting with {@code #} are skipped.
+ * A failing command prints an {@code Error:} line and the run continues.
+ *
+ * <p>Usage: {@code java ConsoleUI} for interactive mode, or
+ * {@code java ConsoleUI --batch [file]} to run a script from a file or stdin.
+ */
+public class ConsoleUI {
+    // Characters buffered before batch output is written.
+    static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final String[] MENU = {
+        "list", "search", "view", "cart", "load", "save", "exit"
+    };
+    private static final String[] PROMPTS = {
+        null, "Enter search query: ", "Enter recipe name: ", "Enter recipe names (comma-separated): ",
+        "Enter file path: ", "Enter file path: ", null
+    };
+
+    private final RecipeBook book;
+    // Recipes shown by the latest list or search, for "view <number>".
+    private List<Recipe> lastListing = new ArrayList<>();
+
+    /**
+     * Creates a console for a recipe book.
+     *
+     * @param book the book that commands read and modify; must not be null
+     * @throws IllegalArgumentException if book is null
+     */
+    public ConsoleUI(RecipeBook book) {
+        if (book == null) {
+            throw new IllegalArgumentException("Book must not be null");
+        }
+        this.book = book;
+    }
+
+    /**
+     * Runs the console on standard input and output with an empty book.
+     *
+     * @param args {@code --batch [file]} for batch mode; no arguments for interactive mode
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        ConsoleUI ui = new ConsoleUI(new RecipeBook());
+        // Bypass System.out so batch output is not flushed line by line.
+        Writer out = new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8);
+        if (args.length == 0) {
+            ui.runInteractive(new InputStreamReader(System.in, StandardCharsets.UTF_8), out);
+        } else if (args[0].equals("--batch") && args.length <= 2) {
+            if (args.length == 2) {
+                try (Reader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+                    ui.runBatch(in, out);
+                }
+            } else {
+                ui.runBatch(new InputStreamReader(System.in, StandardCharsets.UTF_8), out);
+            }
+        } else {
+            System.err.println("Usage: java ConsoleUI [--batch [file]]");
+        }
+    }
+
+    /**
+     * Runs commands from a reader until it is exhausted or an exit command is read.
+     *
+     * <p>Output is written through a {@value #OUTPUT_BUFFER_SIZE}-character
+     * buffer and flushed once at the end. Neither stream is closed.
+     *
+     * @param in the commands, one per line
+     * @param out the destination for command output
+     * @return the number of commands run, including the exit command if any
+     * @throws IOException if reading or writing fails
+     */
+    public int runBatch(Reader in, Writer out) throws IOException {
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        BufferedWriter buffered = new BufferedWriter(out, OUTPUT_BUFFER_SIZE);
+        int count = 0;
+        try {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                count++;
+                int space = firstWhitespace(trimmed);
+                String command = trimmed.substring(0, space);
+                String argument = trimmed.substring(space).trim();
+                if (!execute(command, argument, buffered)) {
+                    break;
+                }
+            }
+        } finally {
+            buffered.flush();
+        }
+        return count;
+    }
+
+    /**
+     * Shows the menu and runs commands typed by the user until exit or end of input.
+     *
+     * <p>A menu number prompts for the command's argument; a command line
+     * such as {@code search garlic} is also accepted. Neither stream is closed.
+     *
+     * @param in the user's input
+     * @param out the destination for menus, prompts and results
+     * @throws IOException if reading or writing fails
+     */
+    public void runInteractive(Reader in, Writer out) throws IOException {
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        out.write("=== Recipe Manager ===\n");
+        writeMenu(out);
+        while (true) {
+            out.write("\nEnter command: ");
+            out.flush();
+            String line = lines.readLine();
+            if (line == null) {
+                break;
+            }
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            String command;
+            String argument;
+            int choice = menuChoice(trimmed);
+            if (choice >= 0) {
+                command = MENU[choice];
+                argument = "";
+                if (PROMPTS[choice] != null) {
+                    out.write(PROMPTS[choice]);
+                    out.flush();
+                    String answer = lines.readLine();
+                    if (answer == null) {
+                        break;
+                    }
+                    argument = answer.trim();
+                }
+            } else {
+                int space = firstWhitespace(trimmed);
+                command = trimmed.substring(0, space);
+                argument = trimmed.substring(space).trim();
+            }
+            out.write('\n');
+            if (!execute(command, argument, out)) {
+                break;
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @return false if the command asks to stop
+     */
+    private boolean execute(String command, String argument, Writer out) throws IOException {
+        switch (command.toLowerCase(Locale.ROOT)) {
+            case "list":
+                writeListing("All Recipes", book.getRecipesSortedByName(), out);
+                return true;
+            case "search":
+                writeListing("Search Results", book.search(argument), out);
+                return true;
+            case "search-name":
+                writeListing("Search Results", book.searchByName(argument), out);
+                return true;
+            case "search-ingredient":
+                writeListing("Search Results", book.searchByIngredient(argument), out);
+                return true;
+            case "view":
+                view(argument, out);
+                return true;
+            case "cart":
+                cart(argument, out);
+                return true;
+            case "load":
+                load(argument, out);
+                return true;
+            case "save":
+                save(argument, out);
+                return true;
+            case "help":
+                writeHelp(out);
+                return true;
+            case "exit":
+            case "quit":
+                out.write("Goodbye!\n");
+                return false;
+            default:
+                out.write("Error: unknown command '");
+                out.write(command);
+                out.write("' (type 'help' for a list)\n");
+                return true;
+        }
+    }
+
+    private void writeListing(String title, List<Recipe> recipes, Writer out) throws IOException {
+        lastListing = recipes;
+        out.write(title);
+        out.write(" (");
+        out.write(Integer.toString(recipes.size()));
+        out.write("):\n");
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe r = recipes.get(i);
+            out.write(Integer.toString(i + 1));
+            out.write(". ");
+            out.write(r.getName());
+            out.write(" (");
+            out.write(Integer.toString(r.getServings()));
+            out.write(r.getServings() == 1 ? " serving)\n" : " servings)\n");
+        }
+    }
+
+    private void view(String argument, Writer out) throws IOException {
+        if (argument.isEmpty()) {
+            out.write("Error: view needs a recipe name or number\n");
+            return;
+        }
+        Recipe recipe = findRecipe(argument);
+        if (recipe == null && isNumber(argument)) {
+            int index = Integer.parseInt(argument);
+            if (index >= 1 && index <= lastListing.size()) {
+                recipe = lastListing.get(index - 1);
+            }
+        }
+        if (recipe == null) {
+            writeNotFound(argument, out);
+            return;
+        }
+        recipe.renderTo(out);
+    }
+
+    private void cart(String argument, Writer out) throws IOException {
+        List<Recipe> selected = new ArrayList<>();
+        for (String name : argument.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Recipe recipe = findRecipe(trimmed);
+            if (recipe == null) {
+                writeNotFound(trimmed, out);
+                return;
+            }
+            selected.add(recipe);
+        }
+        if (selected.isEmpty()) {
+            out.write("Error: cart needs at least one recipe name\n");
+            return;
+        }
+        out.write("=== Shopping Cart ===\n");
+        ShoppingCart.of(selected).renderTo(out);
+    }
+
+    private void load(String argument, Writer out) throws IOException {
+        Path path = toPath(argument, out);
+        if (path == null) {
+            return;
+        }
+        // Collected into a list rather than a throwaway book, so the indexes
+        // are built once and the recipes belong only to this book. The reader
+        // validates the whole file before the first recipe is added.
+        List<Recipe> loaded = new ArrayList<>();
+        try {
+            new RecipeJsonReader().forEach(path, loaded::add);
+        } catch (RecipeFormatException e) {
+            out.write("Error: " + argument + " is not a valid recipe file: " + e.getMessage() + "\n");
+            return;
+        } catch (IOException e) {
+            out.write("Error: could not read " + argument + ": " + e.getMessage() + "\n");
+            return;
+        }
+        book.addAll(loaded);
+        out.write("Successfully loaded " + loaded.size() + " recipes from " + argument + "\n");
+    }
+
+    private void save(String argument, Writer out) throws IOException {
+        Path path = toPath(argument, out);
+        if (path == null) {
+            return;
+        }
+        try {
+            new RecipeJsonWriter().write(book, path);
+        } catch (IOException e) {
+            out.write("Error: could not write " + argument + ": " + e.getMessage() + "\n");
+            return;
+        }
+        out.write("Successfully saved " + book.size() + " recipes to " + argument + "\n");
+    }
+
+    private Recipe findRecipe(String name) {
+        Recipe recipe = book.getRecipe(name);
+        return recipe != null ? recipe : book.getRecipeIgnoreCase(name);
+    }
+
+    private static void writeNotFound(String name, Writer out) throws IOException {
+        out.write("Error: no recipe named '");
+        out.write(name);
+        out.write("'\n");
+    }
+
+    private static Path toPath(String argument, Writer out) throws IOException {
+        if (argument.isEmpty()) {
+            out.write("Error: a file path is required\n");
+            return null;
+        }
+        try {
+            return Paths.get(argument);
+        } catch (InvalidPathException e) {
+            out.write("Error: invalid path " + argument + "\n");
+            return null;
+        }
+    }
+
+    private static void writeMenu(Writer out) throws IOException {
+        out.write("1. List all recipes\n");
+        out.write("2. Search recipes\n");
+        out.write("3. View recipe details\n");
+        out.write("4. Build shopping cart\n");
+        out.write("5. Load recipes from file\n");
+        out.write("6. Save recipes to file\n");
+        out.write("7. Exit\n");
+    }
+
+    private static void writeHelp(Writer out) throws IOException {
+        out.write("Commands:\n");
+        out.write("  list\n");
+        out.write("  search <query>\n");
+        out.write("  search-name <query>\n");
+        out.write("  search-ingredient <query>\n");
+        out.write("  view <name | number>\n");
+        out.write("  cart <name>, <name>, ...\n");
+        out.write("  load <path>\n");
+        out.write("  save <path>\n");
+        out.write("  help\n");
+        out.write("  exit\n");
+    }
+
+    // Returns the menu index for "1".."7", or -1.
+    private static int menuChoice(String input) {
+        if (input.length() == 1 && input.charAt(0) >= '1' && input.charAt(0) <= '0' + MENU.length) {
+            return input.charAt(0) - '1';
+        }
+        return -1;
+    }
+
+    private static int firstWhitespace(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                return i;
+            }
+        }
+        return s.length();
+    }
+
+    private static boolean isNumber(String s) {
+        if (s.isEmpty() || s.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A set of words that can be searched by edit distance, used by
+ * {@link TokenIndex} for typo-tolerant lookups.
+ *
+ * <p>Every word is padded ({@code "$$cake$"}) and indexed by its trigrams.
+ * One insertion, deletion or substitution changes at most three trigrams,
+ * so a word within {@code k} edits of the query shares at least
+ * {@code t - 3k} of the query's {@code t} distinct trigrams. A lookup counts
+ * shared trigrams through the trigram posting lists and computes the
+ * Levenshtein distance only for words that reach that count and whose
+ * length is within {@code k} of the query's. Queries too short for that
+ * bound to prune anything fall back to the words of those lengths, which
+ * are kept in buckets by length.
+ *
+ * <p>Removed words give up their id, which a later word reuses, so the
+ * vocabulary stays as large as the set of words it currently holds.
+ * Lookups keep no state between calls and may run concurrently with each
+ * other, but not with {@link #add} or {@link #remove}.
+ */
+class FuzzyVocabulary {
+    // Stands in for the characters before and after a word.
+    private static final char PAD = '\u0000';
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    // Word ids by word length.
+    private final List<PostingList> byLength = new ArrayList<>();
+    // Words by id; null for an id that is free.
+    private String[] words = new String[16];
+    private int idLimit;
+    private int[] freeIds = new int[16];
+    private int freeCount;
+
+    /**
+     * Adds a word if it is not already present.
+     *
+     * @param word the word to add
+     * @return true if the word was added
+     */
+    boolean add(String word) {
+        if (ids.containsKey(word)) {
+            return false;
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = idLimit++;
+            if (id == words.length) {
+                words = Arrays.copyOf(words, id * 2);
+            }
+        }
+        words[id] = word;
+        ids.put(word, id);
+        for (long trigram : distinctTrigrams(word)) {
+            postings.computeIfAbsent(trigram, k -> new PostingList()).add(id);
+        }
+        while (byLength.size() <= word.length()) {
+            byLength.add(new PostingList());
+        }
+        byLength.get(word.length()).add(id);
+        return true;
+    }
+
+    /**
+     * Removes a word and frees its id.
+     *
+     * @param word the word to remove
+     * @return true if the word was present
+     */
+    boolean remove(String word) {
+        Integer id = ids.remove(word);
+        if (id == null) {
+            return false;
+        }
+        for (long trigram : distinctTrigrams(word)) {
+            PostingList wordIds = postings.get(trigram);
+            if (wordIds.remove(id) && wordIds.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+        byLength.get(word.length()).remove(id);
+        words[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        return true;
+    }
+
+    /**
+     * Calls {@code action} with every word within {@code maxDistance} edits
+     * of {@code query}, along with its distance, in ascending id order.
+     *
+     * @param query the word to look up
+     * @param maxDistance the largest edit distance to report
+     * @param action receives each matching word and its distance
+     */
+    void search(String query, int maxDistance, ObjIntConsumer<String> action) {
+        long[] trigrams = distinctTrigrams(query);
+        int required = trigrams.length - 3 * maxDistance;
+        List<PostingList> candidates = new ArrayList<>();
+        if (required <= 0) {
+            int longest = Math.min(query.length() + maxDistance, byLength.size() - 1);
+            for (int length = Math.max(0, query.length() - maxDistance); length <= longest; length++) {
+                candidates.add(byLength.get(length));
+            }
+            required = 1;
+        } else {
+            for (long trigram : trigrams) {
+                PostingList wordIds = postings.get(trigram);
+                if (wordIds != null) {
+                    candidates.add(wordIds);
+                }
+            }
+        }
+
+        // Every candidate id once per list it is in; a run of equal ids counts shared trigrams.
+        int total = 0;
+        for (PostingList wordIds : candidates) {
+            total += wordIds.size();
+        }
+        int[] hits = new int[total];
+        int n = 0;
+        for (PostingList wordIds : candidates) {
+            for (int i = 0; i < wordIds.size(); i++) {
+                hits[n++] = wordIds.get(i);
+            }
+        }
+        Arrays.sort(hits);
+        for (int start = 0, end; start < total; start = end) {
+            end = start + 1;
+            while (end < total && hits[end] == hits[start]) {
+                end++;
+            }
+            if (end - start >= required) {
+                report(query, hits[start], maxDistance, action);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return the word count
+     */
+    int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the Levenshtein distance between two strings (the fewest
+     * single-character insertions, deletions and substitutions that turn
+     * one into the other), or {@code max + 1} if it exceeds {@code max}.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param max the largest distance of interest
+     * @return the edit distance, capped at {@code max + 1}
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        // One row of the dynamic-programming table.
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int above = row[j];
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, above + 1), diagonal + cost);
+                diagonal = above;
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            // The row minimum never decreases from one row to the next, so the cap cannot be met later.
+            if (rowMin > max) {
+                return max + 1;
+            }
+        }
+        return Math.min(row[b.length()], max + 1);
+    }
+
+    private void report(String query, int id, int maxDistance, ObjIntConsumer<String> action) {
+        int d = distance(query, words[id], maxDistance);
+        if (d <= maxDistance) {
+            action.accept(words[id], d);
+        }
+    }
+
+    // Trigrams of "$$" + word + "$", each packed into a long, without duplicates.
+    private static long[] distinctTrigrams(String word) {
+        int n = word.length() + 2;
+        long[] trigrams = new long[n];
+        for (int i = 0; i < n; i++) {
+            trigrams[i] = ((long) padded(word, i - 2) << 32) | ((long) padded(word, i - 1) << 16) | padded(word, i);
+        }
+        Arrays.sort(trigrams);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (count == 0 || trigrams[count - 1] != trigrams[i]) {
+                trigrams[count++] = trigrams[i];
+            }
+        }
+        return count == n ? trigrams : Arrays.copyOf(trigrams, count);
+    }
+
+    private static char padded(String word, int index) {
+        return index < 0 || index >= word.length() ? PAD : word.charAt(index);
+    }
+}
@@ -2,11 +2,13 @@
  * Represents a single ingredient entry with a name and amount.
  *
  * <p>Ingredients are value objects that store ingredient data as part of a recipe.
- * Names are stored as-is after trimming. Amounts are stored as raw doubles without
+ * Names are stored as-is after trimming, and split into base name and unit once,
+ * when the ingredient is created. Amounts are stored as raw doubles without
  * rounding to maintain precision for scaling operations.
  */
 public class Ingredient {
     private final String name;
+    private final IngredientName parsedName;
     private final double amount;
 
     /**
@@ -24,6 +26,18 @@ public class Ingredient {
             throw new IllegalArgumentException("Ingredient amount must be greater than 0");
         }
         this.name = name.trim();
+        this.parsedName = IngredientName.parse(this.name);
+        this.amount = amount;
+    }
+
+    // For names that are already parsed; amount must be positive.
+    static Ingredient ofParsed(IngredientName parsedName, double amount) {
+        return new Ingredient(parsedName.name(), parsedName, amount);
+    }
+
+    private Ingredient(String name, IngredientName parsedName, double amount) {
+        this.name = name;
+        this.parsedName = parsedName;
         this.amount = amount;
     }
 
@@ -36,6 +50,27 @@ public class Ingredient {
         return name;
     }
 
+    /**
+     * Returns the name without a trailing unit: {@code "olive oil"} for
+     * {@code "olive oil (cup)"}. Names without a known unit are returned
+     * whole.
+     *
+     * @return the base name
+     */
+    public String getBaseName() {
+        return parsedName.baseName();
+    }
+
+    /**
+     * Returns the unit at the end of the name, such as {@link Unit#CUP} for
+     * {@code "olive oil (cup)"}.
+     *
+     * @return the unit, or null if the name does not end in a known unit
+     */
+    public Unit getUnit() {
+        return parsedName.unit();
+    }
+
     /**
      * Returns the amount of this ingredient.
      *
@@ -57,7 +92,7 @@ public class Ingredient {
         if (newAmount <= 0) {
             throw new IllegalArgumentException("Scaled amount must be positive");
         }
-        return new Ingredient(name, newAmount);
+        return new Ingredient(name, parsedName, newAmount);
     }
 
     @Override
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns int ids to ingredient names so recipes can store ids instead of
+ * separate String instances.
+ *
+ * <p>Each distinct name is stored once. Ids are dense and handed out in
+ * order of first use, and a name keeps its id for the life of the
+ * dictionary. Every id also maps to a normalized id, shared by all names
+ * that are equal after normalization (trimmed, case-insensitive; see
+ * DATA_MODEL.md), so grouping ingredients by normalized name needs only
+ * integer comparisons.
+ *
+ * <p>A {@link RecipeBook} owns one dictionary shared by all of its recipes.
+ * A dictionary is not thread-safe for writers; {@link #parsedName(int)} may
+ * be called by several readers at once.
+ */
+class IngredientDictionary {
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final Map<String, Integer> normalizedIdsByKey = new HashMap<>();
+    private String[] names = new String[16];
+    private int[] normalizedIds = new int[16];
+    // Filled on first use; racing readers at worst parse a name twice.
+    private IngredientName[] parsedNames = new IngredientName[16];
+    private int size;
+
+    /**
+     * Returns the id of a name, adding the name if it is new.
+     *
+     * @param name the ingredient name, exactly as stored
+     * @return the id of the name
+     */
+    int idOf(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            normalizedIds = Arrays.copyOf(normalizedIds, size * 2);
+            parsedNames = Arrays.copyOf(parsedNames, size * 2);
+        }
+        String key = IngredientTotals.normalize(name);
+        Integer normalized = normalizedIdsByKey.get(key);
+        if (normalized == null) {
+            normalized = normalizedIdsByKey.size();
+            normalizedIdsByKey.put(key, normalized);
+        }
+        names[size] = name;
+        normalizedIds[size] = normalized;
+        idsByName.put(name, size);
+        return size++;
+    }
+
+    /**
+     * Returns the array holding the name of every id. Entries are only ever
+     * appended, and growing the dictionary copies them to a new array, so the
+     * entries of ids handed out so far can be read from the returned array
+     * while the dictionary keeps growing.
+     *
+     * @return the name table, indexed by id
+     */
+    String[] nameTable() {
+        return names;
+    }
+
+    /**
+     * Returns the name for an id.
+     *
+     * @param id an id returned by {@link #idOf(String)}
+     * @return the ingredient name
+     */
+    String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the name for an id split into base name and unit. The result
+     * is computed once per id.
+     *
+     * @param id an id returned by {@link #idOf(String)}
+     * @return the parsed name
+     */
+    IngredientName parsedName(int id) {
+        IngredientName[] parsed = parsedNames;
+        IngredientName result = parsed[id];
+        if (result == null) {
+            result = IngredientName.parse(names[id]);
+            parsed[id] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the normalized id for an id.
+     *
+     * @param id an id returned by {@link #idOf(String)}
+     * @return a value in {@code [0, normalizedCount())}, equal for names that
+     *         match after normalization
+     */
+    int normalizedId(int id) {
+        return normalizedIds[id];
+    }
+
+    /**
+     * Returns the number of distinct names.
+     *
+     * @return the number of ids handed out
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct normalized names.
+     *
+     * @return the number of normalized ids handed out
+     */
+    int normalizedCount() {
+        return normalizedIdsByKey.size();
+    }
+}
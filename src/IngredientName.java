@@ -0,0 +1,158 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An ingredient name split into its base name and trailing unit, as in
+ * {@code "olive oil (cup)"} -> ({@code "olive oil"}, {@link Unit#CUP}).
+ *
+ * <p>Names are parsed by a single backwards scan, without regular
+ * expressions. A unit is recognized only when the trimmed name ends in a
+ * parenthesized {@link Unit} symbol and has a non-blank base before it;
+ * {@code "salt (pinch)"} and {@code "(cup)"} have no unit and are kept whole.
+ *
+ * <p>Parsed names are immutable. Each {@link IngredientDictionary} keeps
+ * one per id, so names in a {@link RecipeBook} are scanned once, and an
+ * {@link Ingredient} keeps the one it was created with; elsewhere a name is
+ * parsed where it is used, which costs one scan of its tail.
+ */
+final class IngredientName {
+    private static final Map<String, Unit> UNITS_BY_SYMBOL = new HashMap<>();
+
+    static {
+        for (Unit unit : Unit.values()) {
+            for (String symbol : unit.symbols()) {
+                UNITS_BY_SYMBOL.put(symbol, unit);
+            }
+        }
+    }
+
+    private final String name;
+    private final String baseName;
+    private final Unit unit;
+    private final String normalized;
+    private final String groupKey;
+
+    private IngredientName(String name, String baseName, Unit unit) {
+        this.name = name;
+        this.baseName = baseName;
+        this.unit = unit;
+        this.normalized = IngredientTotals.normalize(name);
+        this.groupKey = unit == null
+            ? normalized
+            : IngredientTotals.normalize(baseName) + " (" + unit.getDimension().canonicalUnit().getSymbol() + ")";
+    }
+
+    /**
+     * Parses a name into its base name and unit.
+     *
+     * @param rawName the ingredient name
+     * @return the parsed name
+     */
+    static IngredientName parse(String rawName) {
+        int start = 0;
+        int end = rawName.length();
+        while (start < end && Character.isWhitespace(rawName.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(rawName.charAt(end - 1))) {
+            end--;
+        }
+        String name = rawName.substring(start, end);
+        if (end - start < 3 || rawName.charAt(end - 1) != ')') {
+            return new IngredientName(name, name, null);
+        }
+
+        int open = end - 2;
+        while (open > start && rawName.charAt(open) != '(') {
+            if (rawName.charAt(open) == ')') {
+                return new IngredientName(name, name, null);
+            }
+            open--;
+        }
+        int baseEnd = open;
+        while (baseEnd > start && Character.isWhitespace(rawName.charAt(baseEnd - 1))) {
+            baseEnd--;
+        }
+        if (rawName.charAt(open) != '(' || baseEnd == start) {
+            return new IngredientName(name, name, null);
+        }
+        Unit unit = parseUnit(rawName, open + 1, end - 1);
+        if (unit == null) {
+            return new IngredientName(name, name, null);
+        }
+        return new IngredientName(name, rawName.substring(start, baseEnd), unit);
+    }
+
+    /**
+     * Returns the unit spelled by {@code s[from, to)}, ignoring case, periods
+     * and extra whitespace.
+     *
+     * @return the unit, or null if the text is not a known symbol
+     */
+    static Unit parseUnit(String s, int from, int to) {
+        char[] symbol = new char[to - from];
+        int length = 0;
+        boolean space = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = length > 0;
+            } else if (c != '.') {
+                if (space) {
+                    symbol[length++] = ' ';
+                    space = false;
+                }
+                symbol[length++] = Character.toLowerCase(c);
+            }
+        }
+        return length == 0 ? null : UNITS_BY_SYMBOL.get(new String(symbol, 0, length));
+    }
+
+    /**
+     * Returns the trimmed name as written, unit included.
+     *
+     * @return the name
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Returns the name without its unit, or the whole name if it has none.
+     *
+     * @return the base name
+     */
+    String baseName() {
+        return baseName;
+    }
+
+    /**
+     * Returns the unit at the end of the name.
+     *
+     * @return the unit, or null if the name has none
+     */
+    Unit unit() {
+        return unit;
+    }
+
+    /**
+     * Returns the normalized (trimmed, lower case) form of the whole name.
+     *
+     * @return the normalized name
+     */
+    String normalized() {
+        return normalized;
+    }
+
+    /**
+     * Returns the key under which amounts of this ingredient are summed: the
+     * normalized base name and the canonical unit of its dimension, or the
+     * normalized name if there is no unit. {@code "Butter (tbsp)"} and
+     * {@code "butter (cup)"} share the key {@code "butter (ml)"}.
+     *
+     * @return the grouping key
+     */
+    String groupKey() {
+        return groupKey;
+    }
+}
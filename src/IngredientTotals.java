@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from normalized ingredient name to a summed amount.
+ *
+ * <p>Normalization follows DATA_MODEL.md: leading and trailing whitespace is
+ * trimmed and comparison is case-insensitive; internal spacing is kept.
+ * Lookups hash and compare the raw name character by character as if it were
+ * normalized, so a normalized key string is only created the first time a
+ * name is seen. Sums are kept in a primitive {@code double[]} column.
+ */
+class IngredientTotals {
+    private String[] keys;
+    private String[] displayNames;
+    private double[] sums;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param expectedNames the number of distinct names expected
+     */
+    IngredientTotals(int expectedNames) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedNames * 2 - 1)) << 1;
+        keys = new String[capacity];
+        displayNames = new String[capacity];
+        sums = new double[capacity];
+    }
+
+    /**
+     * Adds an amount under the normalized form of {@code rawName}.
+     *
+     * @param rawName the ingredient name as stored in a recipe
+     * @param amount the amount to add
+     */
+    void add(String rawName, double amount) {
+        int slot = find(rawName);
+        if (slot >= 0) {
+            sums[slot] += amount;
+            return;
+        }
+        int start = trimStart(rawName);
+        int end = trimEnd(rawName, start);
+        insert(-slot - 1, normalize(rawName, start, end), rawName.substring(start, end), amount);
+    }
+
+    /**
+     * Adds every entry of another map into this one.
+     *
+     * @param other the map to merge in
+     */
+    void addAll(IngredientTotals other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            String key = other.keys[i];
+            if (key == null) {
+                continue;
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key.hashCode()) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] != null) {
+                sums[slot] += other.sums[i];
+            } else {
+                insert(slot, key, other.displayNames[i], other.sums[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slots of all entries sorted by normalized name.
+     *
+     * @return occupied slot indexes in name order
+     */
+    int[] sortedSlots() {
+        Integer[] slots = new Integer[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                slots[n++] = i;
+            }
+        }
+        Arrays.sort(slots, (a, b) -> keys[a].compareTo(keys[b]));
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = slots[i];
+        }
+        return result;
+    }
+
+    String key(int slot) {
+        return keys[slot];
+    }
+
+    String displayName(int slot) {
+        return displayNames[slot];
+    }
+
+    double sum(int slot) {
+        return sums[slot];
+    }
+
+    // Returns the slot holding rawName's normalized key, or (-emptySlot - 1) if absent.
+    private int find(String rawName) {
+        int start = trimStart(rawName);
+        int end = trimEnd(rawName, start);
+        // Same formula as String.hashCode of the normalized key.
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(rawName.charAt(i));
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (matches(keys[slot], rawName, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Returns the normalized form of an ingredient name: trimmed and lower case.
+     *
+     * @param rawName the ingredient name as stored in a recipe
+     * @return the key this map uses for the name
+     */
+    static String normalize(String rawName) {
+        int start = trimStart(rawName);
+        return normalize(rawName, start, trimEnd(rawName, start));
+    }
+
+    private static int trimStart(String s) {
+        int start = 0;
+        while (start < s.length() && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String s, int start) {
+        int end = s.length();
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private void insert(int slot, String key, String displayName, double amount) {
+        keys[slot] = key;
+        displayNames[slot] = displayName;
+        sums[slot] = amount;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        String[] oldNames = displayNames;
+        double[] oldSums = sums;
+        keys = new String[oldKeys.length * 2];
+        displayNames = new String[oldKeys.length * 2];
+        sums = new double[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = mix(oldKeys[i].hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                displayNames[slot] = oldNames[i];
+                sums[slot] = oldSums[i];
+            }
+        }
+    }
+
+    private static boolean matches(String key, String rawName, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toLowerCase(rawName.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String rawName, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(rawName.charAt(start + i));
+        }
+        return new String(chars);
+    }
+
+    // Spreads hash bits so linear probing copes with similar names.
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram inverted index over case-folded names.
+ *
+ * <p>Every three-character window of a folded name maps to the posting list
+ * of ids whose name contains it. A substring query of three or more
+ * characters can only match names that contain all of the query's trigrams,
+ * so intersecting those posting lists narrows the candidates before the
+ * final {@code contains} check. Shorter queries fall back to scanning the
+ * cached folded names, unless the index was created to also hold every
+ * one- and two-character window; that costs about three times the postings
+ * and suits small sets of short strings such as a token vocabulary.
+ */
+class NameTrigramIndex {
+    // Marks one- and two-character keys; trigram keys only use the low 48 bits.
+    private static final long BIGRAM = 1L << 48;
+    private static final long UNIGRAM = 2L << 48;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    // Kept in ascending id order because ids are always added in increasing order.
+    private final Map<Integer, String> foldedNames = new LinkedHashMap<>();
+    private final boolean shortGrams;
+
+    /**
+     * Creates an index that scans for queries shorter than three characters.
+     */
+    NameTrigramIndex() {
+        this(false);
+    }
+
+    /**
+     * Creates an index.
+     *
+     * @param shortGrams whether one- and two-character windows are indexed too,
+     *        so that short queries are answered from postings
+     */
+    NameTrigramIndex(boolean shortGrams) {
+        this.shortGrams = shortGrams;
+    }
+
+    /**
+     * Indexes a recipe name.
+     *
+     * @param id the recipe id
+     * @param foldedName the case-folded recipe name
+     */
+    void add(int id, String foldedName) {
+        foldedNames.put(id, foldedName);
+        for (Long key : keys(foldedName)) {
+            postings.computeIfAbsent(key, k -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * Removes a recipe from the index.
+     *
+     * @param id the recipe id
+     */
+    void remove(int id) {
+        String foldedName = foldedNames.remove(id);
+        if (foldedName == null) {
+            return;
+        }
+        for (Long key : keys(foldedName)) {
+            PostingList ids = postings.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of recipes whose folded name contains the folded query.
+     *
+     * @param foldedQuery the case-folded, non-empty query
+     * @return matching ids in ascending (insertion) order
+     */
+    List<Integer> search(String foldedQuery) {
+        List<Integer> results = new ArrayList<>();
+        if (foldedQuery.length() < 3 && shortGrams) {
+            Long key = foldedQuery.length() == 1 ? unigram(foldedQuery, 0) : bigram(foldedQuery, 0);
+            PostingList ids = postings.get(key);
+            if (ids != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    results.add(ids.get(i));
+                }
+            }
+            return results;
+        }
+        if (foldedQuery.length() < 3) {
+            for (Map.Entry<Integer, String> e : foldedNames.entrySet()) {
+                if (e.getValue().contains(foldedQuery)) {
+                    results.add(e.getKey());
+                }
+            }
+            return results;
+        }
+
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= foldedQuery.length(); i++) {
+            PostingList ids = postings.get(trigram(foldedQuery, i));
+            if (ids == null) {
+                return results;
+            }
+            lists.add(ids);
+        }
+
+        for (int id : PostingList.intersect(lists)) {
+            if (foldedNames.get(id).contains(foldedQuery)) {
+                results.add(id);
+            }
+        }
+        return results;
+    }
+
+    private List<Long> keys(String foldedName) {
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i + 3 <= foldedName.length(); i++) {
+            keys.add(trigram(foldedName, i));
+        }
+        if (shortGrams) {
+            for (int i = 0; i < foldedName.length(); i++) {
+                keys.add(unigram(foldedName, i));
+                if (i + 2 <= foldedName.length()) {
+                    keys.add(bigram(foldedName, i));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static Long unigram(String s, int start) {
+        return UNIGRAM | s.charAt(start);
+    }
+
+    private static Long bigram(String s, int start) {
+        return BIGRAM | ((long) s.charAt(start) << 16) | s.charAt(start + 1);
+    }
+
+    private static Long trigram(String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sorted set of recipe ids, used by the indexes inside {@link RecipeBook}.
+ *
+ * <p>Recipe ids are handed out in insertion order, so the common case of
+ * adding a newly inserted recipe is a plain append. Ids are kept in
+ * ascending order, which means walking a posting list visits recipes in
+ * the same order the book stores them.
+ */
+class PostingList {
+    private int[] ids;
+    private int size;
+
+    /**
+     * Creates an empty posting list.
+     */
+    PostingList() {
+        this.ids = new int[2];
+    }
+
+    /**
+     * Adds an id, keeping the list sorted. Duplicate ids are ignored.
+     *
+     * @param id the recipe id to add
+     */
+    void add(int id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * Removes an id if present.
+     *
+     * @param id the recipe id to remove
+     * @return true if the id was present
+     */
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns whether the id is present.
+     *
+     * @param id the recipe id to look for
+     * @return true if the id is in this list
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Returns the id at the given position (ascending order).
+     *
+     * @param index position in the list
+     * @return the id at that position
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns a copy of the ids in ascending order.
+     *
+     * @return a new array holding every id in this list
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Intersects posting lists, starting from the smallest so that the
+     * candidate set shrinks as quickly as possible.
+     *
+     * @param lists the lists to intersect; must not be empty
+     * @return the ids present in every list, in ascending order
+     */
+    static int[] intersect(List<PostingList> lists) {
+        List<PostingList> ordered = new ArrayList<>(lists);
+        ordered.sort(Comparator.comparingInt(PostingList::size));
+        int[] result = ordered.get(0).toArray();
+        int count = result.length;
+        for (int i = 1; i < ordered.size() && count > 0; i++) {
+            PostingList other = ordered.get(i);
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (other.contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            count = kept;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Merges posting lists into a new list holding every id that appears in any of them.
+     *
+     * @param lists the lists to merge
+     * @return a new posting list with the union of the ids
+     */
+    static PostingList union(List<PostingList> lists) {
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] merged = new int[total];
+        int pos = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.ids, 0, merged, pos, list.size);
+            pos += list.size;
+        }
+        Arrays.sort(merged);
+
+        PostingList result = new PostingList();
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            if (count == 0 || merged[count - 1] != merged[i]) {
+                merged[count++] = merged[i];
+            }
+        }
+        result.ids = merged;
+        result.size = count;
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(capacity, ids.length + (ids.length >> 1) + 1));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of search results, used by {@link RecipeBook}.
+ *
+ * <p>Entries are tagged with the book's modification count when stored. A
+ * lookup with a different count discards every entry, since any add, remove
+ * or ingredient change may alter any result. Results are kept as arrays and
+ * copied into a new list on every hit, so callers can modify what they get.
+ */
+class QueryCache {
+    private final int capacity;
+    private final LinkedHashMap<String, Recipe[]> entries;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of cached queries; must be positive
+     */
+    QueryCache(int capacity) {
+        this.capacity = capacity;
+        // Access order: iteration starts at the least recently used entry.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Recipe[]> eldest) {
+                if (size() > QueryCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for a key, or null if it is not cached for
+     * the given version.
+     *
+     * @param key the normalized query, including the kind of search
+     * @param currentVersion the book's current modification count
+     * @return a new list holding the cached result, or null on a miss
+     */
+    List<Recipe> get(String key, long currentVersion) {
+        if (currentVersion != version) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+                entries.clear();
+            }
+            version = currentVersion;
+        }
+        Recipe[] result = entries.get(key);
+        if (result == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    /**
+     * Stores a result computed at the version passed to the preceding {@link #get}.
+     *
+     * @param key the normalized query, including the kind of search
+     * @param result the search result
+     */
+    void put(String key, List<Recipe> result) {
+        entries.put(key, result.toArray(new Recipe[0]));
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, invalidations, entries.size(), capacity);
+    }
+}
@@ -1,15 +1,105 @@
 // src/Recipe.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Recipe {
     private final String name;
     private int servings;
 
-    // Parallel lists to keep Day-1 Java simple (no extra classes required).
-    private final ArrayList<String> ingredientNames = new ArrayList<>();
-    private final ArrayList<Double> ingredientAmounts = new ArrayList<>();
+    // Ingredients are stored column-wise: a name-id column and a primitive
+    // amount column of the same length, so adding and scaling never box amounts.
+    // Names are ids in a dictionary; a recipe added to a RecipeBook shares the
+    // book's dictionary, otherwise it creates its own on first use.
+    // Amounts are kept as entered for baseServings; scaling only changes
+    // servings, and the visible amount is base * (servings / baseServings).
+    private IngredientDictionary dictionary;
+    private int[] ingredientIds = new int[4];
+    private double[] ingredientAmounts = new double[4];
+    private int ingredientCount;
+    private int baseServings;
+    private double scaleFactor = 1.0;
+    // Set while the columns may be read through a Columns view taken by
+    // shareColumns(); the next in-place change copies them first.
+    private boolean columnsShared;
+
+    // Observers (such as a RecipeBook's search index) notified of ingredient changes.
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Receives notifications when a recipe's ingredients change.
+     *
+     * <p>Used by collections that index recipe contents so they can stay
+     * up to date without rescanning the recipe.
+     */
+    interface Listener {
+        /**
+         * Called after an ingredient has been appended to a recipe.
+         *
+         * @param recipe the recipe that changed
+         * @param index the position of the new ingredient
+         */
+        void ingredientAdded(Recipe recipe, int index);
+    }
+
+    /**
+     * The name, servings and ingredients of a recipe at one moment, read
+     * from its columns without copying them.
+     */
+    static final class Columns {
+        private final String name;
+        private final int servings;
+        private final String[] names;
+        private final int[] ids;
+        private final double[] amounts;
+        private final int count;
+        private final double scaleFactor;
+
+        private Columns(Recipe recipe) {
+            this.name = recipe.name;
+            this.servings = recipe.servings;
+            this.names = recipe.dictionary == null ? null : recipe.dictionary.nameTable();
+            this.ids = recipe.ingredientIds;
+            this.amounts = recipe.ingredientAmounts;
+            this.count = recipe.ingredientCount;
+            this.scaleFactor = recipe.scaleFactor;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getServings() {
+            return servings;
+        }
+
+        int totalIngredientCount() {
+            return count;
+        }
+
+        String getIngredientName(int index) {
+            return names[ids[index]];
+        }
+
+        // Same arithmetic as Recipe.getIngredientAmount, so amounts match exactly.
+        double getIngredientAmount(int index) {
+            return amounts[index] * scaleFactor;
+        }
+    }
 
     public Recipe(String name, int servings) {
+        this(name, servings, null);
+    }
+
+    /**
+     * Creates a recipe whose ingredient names go into the given dictionary.
+     *
+     * @param name the recipe name
+     * @param servings the number of servings
+     * @param dictionary the dictionary to use, or null to create one when needed
+     */
+    Recipe(String name, int servings, IngredientDictionary dictionary) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("name must be non-empty");
         }
@@ -18,7 +108,28 @@ public class Recipe {
         }
         this.name = name;
         this.servings = servings;
+        this.baseServings = servings;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Returns the name of this recipe.
+     *
+     * @return the recipe name, exactly as provided to the constructor
+     */
+    public String getName() {
+        return name;
     }
+
+    /**
+     * Returns the current number of servings.
+     *
+     * @return the servings count; always positive
+     */
+    public int getServings() {
+        return servings;
+    }
+
     /**
      * Adds an ingredient and its amount to the recipe.
      *
@@ -45,30 +156,158 @@ public class Recipe {
             return;
         }
 
-        ingredientNames.add(ingredientName);
-        ingredientAmounts.add(amount);
+        // The new amount is given for the current servings, so store it against
+        // the same base as the existing amounts.
+        bake();
+
+        if (dictionary == null) {
+            dictionary = new IngredientDictionary();
+        }
+        if (ingredientCount == ingredientIds.length) {
+            int capacity = ingredientCount + (ingredientCount >> 1) + 1;
+            ingredientIds = Arrays.copyOf(ingredientIds, capacity);
+            ingredientAmounts = Arrays.copyOf(ingredientAmounts, capacity);
+        }
+        int index = ingredientCount++;
+        ingredientIds[index] = dictionary.idOf(ingredientName);
+        ingredientAmounts[index] = amount;
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).ingredientAdded(this, index);
+        }
+    }
+
+    /**
+     * Returns the name of the ingredient at the given position.
+     *
+     * @param index the ingredient position, in insertion order
+     * @return the ingredient name, exactly as added
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public String getIngredientName(int index) {
+        return dictionary.name(ingredientIds[checkIndex(index)]);
+    }
+
+    /**
+     * Returns the dictionary id of the ingredient name at the given position.
+     *
+     * @param index the ingredient position, in insertion order
+     * @return an id in {@link #dictionary()}
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    int getIngredientId(int index) {
+        return ingredientIds[checkIndex(index)];
+    }
+
+    /**
+     * Returns the dictionary holding this recipe's ingredient names.
+     *
+     * @return the dictionary, or null if no ingredient has been added yet
+     */
+    IngredientDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Moves this recipe's ingredient names into another dictionary.
+     *
+     * <p>Ids are translated by name, so visible ingredient names do not change.
+     *
+     * @param target the dictionary to use from now on
+     */
+    void bindTo(IngredientDictionary target) {
+        if (dictionary == target) {
+            return;
+        }
+        unshareColumns();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredientIds[i] = target.idOf(dictionary.name(ingredientIds[i]));
+        }
+        dictionary = target;
+    }
+
+    /**
+     * Returns the (unrounded) amount of the ingredient at the given position,
+     * scaled to the current servings.
+     *
+     * @param index the ingredient position, in insertion order
+     * @return the ingredient amount
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public double getIngredientAmount(int index) {
+        return ingredientAmounts[checkIndex(index)] * scaleFactor;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= ingredientCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + ingredientCount);
+        }
+        return index;
+    }
+
+    /**
+     * Returns a view of this recipe as it is now, valid only until the
+     * recipe next changes.
+     *
+     * @return the current columns
+     */
+    Columns columns() {
+        return new Columns(this);
+    }
+
+    /**
+     * Returns a view of this recipe as it is now that stays valid while the
+     * recipe keeps changing. Appending only writes past the view's count;
+     * changes that rewrite existing entries copy the columns first.
+     *
+     * @return the current columns
+     */
+    Columns shareColumns() {
+        columnsShared = true;
+        return new Columns(this);
+    }
+
+    private void unshareColumns() {
+        if (columnsShared) {
+            ingredientIds = ingredientIds.clone();
+            ingredientAmounts = ingredientAmounts.clone();
+            columnsShared = false;
+        }
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
 
 
     /**
      * Returns the number of ingredient entries in this recipe.
      *
-     * <p>This recipe stores ingredient data in parallel lists; the number of
-     * entries is the size of the ingredient name list.
+     * <p>This recipe stores ingredient data in parallel columns; the number of
+     * entries is the number of filled slots in those columns.
      *
      * @return the number of ingredients added to the recipe
      */
     public int totalIngredientCount() {
-        // Return the number of ingredient entries (parallel lists length)
-        return ingredientNames.size();
+        // Return the number of ingredient entries (filled column length)
+        return ingredientCount;
     }
 
     /**
      * Scales all ingredient amounts proportionally to match {@code newServings}.
      *
-     * <p>Multiplies each ingredient's amount by the ratio of {@code newServings}
-     * to the current servings. Stored amounts are not rounded; precision is
-     * maintained for subsequent scaling operations.
+     * <p>Every amount becomes its value at the base servings multiplied by
+     * {@code newServings / baseServings}. The base servings are the servings the
+     * recipe was created with, or the servings at the last {@link #bake()}.
+     * Only the servings change here; amounts are computed when read, so this
+     * runs in constant time. Because the factor is recomputed from the base
+     * each time, repeated scaling does not accumulate drift; scaling back to
+     * the base servings restores the original amounts exactly. Stored amounts
+     * are never rounded.
      *
      * @param newServings the target number of servings; must be positive
      * @throws IllegalArgumentException if {@code newServings} is not positive
@@ -78,13 +317,29 @@ public class Recipe {
             throw new IllegalArgumentException("newServings must be positive");
         }
 
-        double factor = (double) newServings / this.servings;
+        long start = RecipeMetrics.start();
+        this.servings = newServings;
+        this.scaleFactor = (double) newServings / baseServings;
+        RecipeMetrics.record(RecipeMetrics.Operation.SCALE_TO_SERVINGS, start, ingredientCount);
+    }
 
-        for (int i = 0; i < ingredientAmounts.size(); i++) {
-            ingredientAmounts.set(i, ingredientAmounts.get(i) * factor);
+    /**
+     * Makes the current scaled amounts the stored base amounts.
+     *
+     * <p>Later scaling is then relative to the current servings. Visible
+     * amounts do not change. This runs in time linear in the number of
+     * ingredients, and does nothing if the recipe is not currently scaled.
+     */
+    public void bake() {
+        if (servings == baseServings) {
+            return;
         }
-
-        this.servings = newServings;
+        unshareColumns();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredientAmounts[i] *= scaleFactor;
+        }
+        baseServings = servings;
+        scaleFactor = 1.0;
     }
 
     /**
@@ -105,18 +360,37 @@ public class Recipe {
      * @return a formatted string representation of the recipe
      */
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(name).append(" (serves ").append(servings).append(")\n");
-
-        for (int i = 0; i < ingredientNames.size(); i++) {
-            String iname = ingredientNames.get(i);
-            double amt = ingredientAmounts.get(i);
-            sb.append("- ").append(formatAmount(amt)).append(" ").append(iname).append("\n");
+        StringBuilder sb = new StringBuilder(32 + 24 * ingredientCount);
+        try {
+            renderTo(sb);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new UncheckedIOException(e);
         }
-
         return sb.toString();
     }
 
+    /**
+     * Writes the {@link #toString()} form of this recipe to {@code out}.
+     *
+     * <p>Text is appended piece by piece, so rendering many recipes into a
+     * single buffered writer or builder does not create a String per recipe.
+     *
+     * @param out the destination
+     * @throws IOException if the destination fails
+     */
+    public void renderTo(Appendable out) throws IOException {
+        out.append(name).append(" (serves ");
+        AmountFormat.appendLong(out, servings);
+        out.append(")\n");
+
+        for (int i = 0; i < ingredientCount; i++) {
+            out.append("- ");
+            AmountFormat.appendTo(out, ingredientAmounts[i] * scaleFactor);
+            out.append(' ').append(dictionary.name(ingredientIds[i])).append('\n');
+        }
+    }
+
     /**
      * Returns a prettified string representation of this recipe.
      *
@@ -139,20 +413,6 @@ public class Recipe {
         // 7.5 -> "7.5"
         // 0.625 -> "0.63"
         // 1.333 -> "1.33"
-        //
-        // Treat values extremely close to an integer as integers
-        double rounded = Math.rint(x);
-        if (Math.abs(x - rounded) < 1e-9) {
-            return String.valueOf((long) rounded);
-        }
-
-        // Format with two decimals, then trim trailing zeros
-        String s = String.format("%.2f", x);
-        // remove trailing zeros and possible trailing decimal point
-        if (s.indexOf('.') >= 0) {
-            s = s.replaceAll("0+$", "");
-            s = s.replaceAll("\\.$", "");
-        }
-        return s;
+        return AmountFormat.format(x);
     }
 }
@@ -1,5 +1,20 @@
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 
 /**
  * Manages a collection of recipes.
@@ -7,15 +22,108 @@ import java.util.List;
  * <p>RecipeBook maintains recipes in insertion order and provides operations
  * for adding, removing, and retrieving recipes. Recipes are uniquely identified
  * by their name (case-sensitive).
+ *
+ * <p>Internally each recipe is given an id in insertion order. Recipes are
+ * stored by id in insertion order, and a name index (exact and case-folded)
+ * maps names to ids so lookups and removals by name do not scan the book.
+ * Search indexes over names and ingredient names are kept up to date as
+ * recipes are added, removed, or gain ingredients.
+ *
+ * <p>Ingredient names are dictionary-encoded: the book owns one
+ * {@link IngredientDictionary} and every recipe added to it stores ids from
+ * that dictionary, so each distinct name is held once. A recipe added to
+ * several books uses the dictionary of the book it was added to last.
+ *
+ * <p>Results of {@link #searchByName}, {@link #searchByIngredient} and
+ * {@link #search} are kept in a small LRU cache keyed by the normalized
+ * query. Any add, remove or ingredient change empties the cache.
+ *
+ * <p>To populate a large book, create it with
+ * {@link #RecipeBook(int, boolean)} and load it with {@link #addAll}, which
+ * sizes the indexes up front and fills them in one pass.
+ *
+ * <p>Queries no index can answer go through {@link #filter}, which scans
+ * books of at least {@link #setParallelScanThreshold(int) the parallel scan
+ * threshold} and more than one chunk in chunks on the common fork/join pool.
  */
 public class RecipeBook {
-    private final List<Recipe> recipes;
+    /** Number of search results cached by default. */
+    public static final int DEFAULT_SEARCH_CACHE_CAPACITY = 128;
+
+    /** Largest edit distance per query word accepted by {@link #searchFuzzy(String, int)}. */
+    public static final int MAX_FUZZY_DISTANCE = 3;
+
+    /** Book size from which {@link #filter} scans in parallel by default. */
+    public static final int DEFAULT_PARALLEL_SCAN_THRESHOLD = 16384;
+
+    // Batches at least this large fold names and build sort keys in parallel.
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private final Map<Integer, Recipe> recipes;
+    private final Map<String, PostingList> idsByName;
+    private final Map<String, PostingList> idsByFoldedName;
+    private final NameTrigramIndex nameTrigrams;
+    private final TokenIndex tokens;
+    private final Map<Recipe, PostingList> idsByRecipe;
+    private final Recipe.Listener ingredientListener = this::ingredientAdded;
+    private final IngredientDictionary dictionary = new IngredientDictionary();
+    // Case-folded ingredient names by dictionary id, filled on first use.
+    private String[] foldedIngredientNames = new String[16];
+    // Optional: recipes ordered as RecipeSorter.sortByName orders them, with ids as sequence numbers.
+    private TreeSet<RecipeSorter.SortKey> sortedByName;
+    private int nextId;
+    // Bumped by every change that can alter a search result.
+    private long modCount;
+    private QueryCache searchCache = new QueryCache(DEFAULT_SEARCH_CACHE_CAPACITY);
+    private int parallelScanThreshold = DEFAULT_PARALLEL_SCAN_THRESHOLD;
+    // Recipes in insertion order for scanning, rebuilt when modCount moves past scanVersion.
+    private Recipe[] scanOrder;
+    private long scanVersion = -1;
 
     /**
      * Creates a new empty RecipeBook.
      */
     public RecipeBook() {
-        this.recipes = new ArrayList<>();
+        this(false);
+    }
+
+    /**
+     * Creates a new empty RecipeBook, optionally keeping a sorted name index.
+     *
+     * <p>With the index, {@link #getRecipesSortedByName()} is a linear
+     * traversal and {@link #getRecipesInNameRange(String, String)} is
+     * logarithmic in the size of the book, at the cost of O(log n) extra
+     * work on every add and remove.
+     *
+     * @param sortedIndex true to maintain a sorted index over recipe names
+     */
+    public RecipeBook(boolean sortedIndex) {
+        this(0, sortedIndex);
+    }
+
+    /**
+     * Creates a new empty RecipeBook sized for an expected number of recipes.
+     *
+     * <p>The recipe store and name indexes are allocated large enough to
+     * hold {@code expectedSize} recipes without rehashing.
+     *
+     * @param expectedSize the number of recipes the book is expected to hold
+     * @param sortedIndex true to maintain a sorted index over recipe names
+     * @throws IllegalArgumentException if expectedSize is negative
+     * @see #RecipeBook(boolean)
+     */
+    public RecipeBook(int expectedSize, boolean sortedIndex) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(16, expectedSize * 4L / 3 + 1));
+        this.sortedByName = sortedIndex ? new TreeSet<>() : null;
+        this.recipes = new LinkedHashMap<>(capacity);
+        this.idsByName = new HashMap<>(capacity);
+        this.idsByFoldedName = new HashMap<>(capacity);
+        this.nameTrigrams = new NameTrigramIndex();
+        this.tokens = new TokenIndex();
+        this.idsByRecipe = new IdentityHashMap<>(Math.max(expectedSize, 16));
     }
 
     /**
@@ -30,7 +138,117 @@ public class RecipeBook {
         if (recipe == null) {
             throw new IllegalArgumentException("Recipe must not be null");
         }
-        recipes.add(recipe);
+        long start = RecipeMetrics.start();
+        recipe.bindTo(dictionary);
+        modCount++;
+        int id = nextId++;
+        recipes.put(id, recipe);
+        String folded = fold(recipe.getName());
+        indexId(idsByName, recipe.getName(), id);
+        indexId(idsByFoldedName, folded, id);
+        nameTrigrams.add(id, folded);
+        tokens.addName(id, folded);
+        if (sortedByName != null) {
+            sortedByName.add(new RecipeSorter.SortKey(recipe, id));
+        }
+        for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+            tokens.addIngredient(id, foldedIngredient(recipe, i));
+        }
+
+        PostingList ids = idsByRecipe.get(recipe);
+        if (ids == null) {
+            ids = new PostingList();
+            idsByRecipe.put(recipe, ids);
+            recipe.addListener(ingredientListener);
+        }
+        ids.add(id);
+        RecipeMetrics.record(RecipeMetrics.Operation.ADD_RECIPE, start, recipes.size());
+    }
+
+    /**
+     * Adds several recipes to this recipe book, in iteration order.
+     *
+     * <p>The result is the same as calling {@link #addRecipe(Recipe)} for each
+     * recipe, but the batch is checked before anything is added, so a null
+     * element leaves the book unchanged. Names are case-folded once per
+     * recipe and ingredient names once per distinct name. For large batches
+     * the folding and, with a sorted index, the sorting are done in parallel.
+     * A batch at least as large as the sorted index is merged with it and
+     * the index is rebuilt from the merged run, rather than inserted key by
+     * key.
+     *
+     * @param batch the recipes to add; must not be null or contain null
+     * @throws IllegalArgumentException if batch is null or contains null
+     */
+    public void addAll(Collection<Recipe> batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Recipes must not be null");
+        }
+        Recipe[] added = batch.toArray(new Recipe[0]);
+        for (Recipe recipe : added) {
+            if (recipe == null) {
+                throw new IllegalArgumentException("Recipes must not contain null");
+            }
+        }
+        if (added.length == 0) {
+            return;
+        }
+        long start = RecipeMetrics.start();
+        // The dictionary is not thread-safe, so binding stays on this thread.
+        for (Recipe recipe : added) {
+            recipe.bindTo(dictionary);
+        }
+        modCount++;
+        int firstId = nextId;
+        nextId += added.length;
+        boolean parallel = added.length >= PARALLEL_THRESHOLD;
+
+        String[] foldedNames = new String[added.length];
+        if (parallel) {
+            Arrays.parallelSetAll(foldedNames, i -> fold(added[i].getName()));
+        } else {
+            Arrays.setAll(foldedNames, i -> fold(added[i].getName()));
+        }
+
+        for (int i = 0; i < added.length; i++) {
+            Recipe recipe = added[i];
+            int id = firstId + i;
+            recipes.put(id, recipe);
+            indexId(idsByName, recipe.getName(), id);
+            indexId(idsByFoldedName, foldedNames[i], id);
+            nameTrigrams.add(id, foldedNames[i]);
+            tokens.addName(id, foldedNames[i]);
+            for (int j = 0; j < recipe.totalIngredientCount(); j++) {
+                tokens.addIngredient(id, foldedIngredient(recipe, j));
+            }
+
+            PostingList ids = idsByRecipe.get(recipe);
+            if (ids == null) {
+                ids = new PostingList();
+                idsByRecipe.put(recipe, ids);
+                recipe.addListener(ingredientListener);
+            }
+            ids.add(id);
+        }
+
+        if (sortedByName != null) {
+            RecipeSorter.SortKey[] keys = new RecipeSorter.SortKey[added.length];
+            if (parallel) {
+                Arrays.parallelSetAll(keys, i -> new RecipeSorter.SortKey(added[i], firstId + i));
+                Arrays.parallelSort(keys);
+            } else {
+                Arrays.setAll(keys, i -> new RecipeSorter.SortKey(added[i], firstId + i));
+                Arrays.sort(keys);
+            }
+            if (keys.length >= sortedByName.size()) {
+                // Rebuilt from one merged run: TreeSet copies a SortedSet in
+                // order instead of inserting each key with O(log n) compares.
+                sortedByName = new TreeSet<>(new SortedArraySet(merge(sortedByName, keys)));
+            } else {
+                sortedByName.addAll(Arrays.asList(keys));
+            }
+        }
+        RecipeMetrics.record(RecipeMetrics.Operation.ADD_ALL, start, recipes.size());
     }
 
     /**
@@ -42,16 +260,62 @@ public class RecipeBook {
      * @return true if a recipe was removed, false if no matching recipe was found
      */
     public boolean removeRecipe(String recipeName) {
+        long start = RecipeMetrics.start();
+        boolean removed = removeFirst(recipeName);
+        RecipeMetrics.record(RecipeMetrics.Operation.REMOVE_RECIPE, start, recipes.size());
+        return removed;
+    }
+
+    private boolean removeFirst(String recipeName) {
         if (recipeName == null) {
             return false;
         }
-        return recipes.removeIf(r -> {
-            try {
-                return getRecipeName(r).equals(recipeName);
-            } catch (ReflectiveOperationException e) {
-                return false;
-            }
-        });
+        PostingList ids = idsByName.get(recipeName);
+        if (ids == null) {
+            return false;
+        }
+        modCount++;
+        int id = ids.get(0);
+        Recipe removed = recipes.remove(id);
+        unindexId(idsByName, recipeName, id);
+        unindexId(idsByFoldedName, fold(removed.getName()), id);
+        nameTrigrams.remove(id);
+        if (sortedByName != null) {
+            sortedByName.remove(new RecipeSorter.SortKey(removed, id));
+        }
+
+        List<String> foldedIngredients = new ArrayList<>();
+        for (int i = 0; i < removed.totalIngredientCount(); i++) {
+            foldedIngredients.add(foldedIngredient(removed, i));
+        }
+        tokens.remove(id, fold(removed.getName()), foldedIngredients);
+
+        PostingList recipeIds = idsByRecipe.get(removed);
+        if (recipeIds.remove(id) && recipeIds.isEmpty()) {
+            idsByRecipe.remove(removed);
+            removed.removeListener(ingredientListener);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first recipe with exactly the specified name.
+     *
+     * @param recipeName the recipe name (case-sensitive)
+     * @return the matching recipe, or null if there is none
+     */
+    public Recipe getRecipe(String recipeName) {
+        return firstRecipe(idsByName, recipeName);
+    }
+
+    /**
+     * Returns the first recipe whose name equals the specified name, ignoring case.
+     *
+     * @param recipeName the recipe name (case-insensitive)
+     * @return the matching recipe, or null if there is none
+     */
+    public Recipe getRecipeIgnoreCase(String recipeName) {
+        return recipeName == null ? null : firstRecipe(idsByFoldedName, fold(recipeName));
     }
 
     /**
@@ -63,7 +327,92 @@ public class RecipeBook {
      * @return a list of all recipes in insertion order
      */
     public List<Recipe> getAllRecipes() {
-        return new ArrayList<>(recipes);
+        return new ArrayList<>(recipes.values());
+    }
+
+    /**
+     * Returns all recipes sorted by name, in the order of
+     * {@link RecipeSorter#sortByName(List)} applied to {@link #getAllRecipes()}.
+     *
+     * <p>With a sorted index this walks the index in O(n); otherwise the
+     * recipes are sorted on each call.
+     *
+     * @return a new list of all recipes sorted by name (case-insensitive, A-Z)
+     */
+    public List<Recipe> getRecipesSortedByName() {
+        if (sortedByName == null) {
+            return RecipeSorter.sortByName(getAllRecipes());
+        }
+        List<Recipe> sorted = new ArrayList<>(sortedByName.size());
+        for (RecipeSorter.SortKey key : sortedByName) {
+            sorted.add(key.recipe);
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the recipes whose names fall in a range, sorted by name.
+     *
+     * <p>Names are compared ignoring case. {@code from} is inclusive and
+     * {@code to} is exclusive, so the range from "b" to "e" holds names
+     * starting with B, C or D. A null bound leaves that end of the range open.
+     * With a sorted index, finding the range takes O(log n); otherwise the
+     * book is scanned and the matches are sorted.
+     *
+     * @param from the lowest name to include, or null
+     * @param to the name at which to stop, or null
+     * @return a new list of matching recipes sorted by name (case-insensitive, A-Z)
+     */
+    public List<Recipe> getRecipesInNameRange(String from, String to) {
+        String low = from == null ? null : RecipeSorter.foldCase(from);
+        String high = to == null ? null : RecipeSorter.foldCase(to);
+        if (sortedByName == null) {
+            return RecipeSorter.sortByName(scan(r -> {
+                String folded = RecipeSorter.foldCase(r.getName());
+                return (low == null || folded.compareTo(low) >= 0) && (high == null || folded.compareTo(high) < 0);
+            }));
+        }
+
+        SortedSet<RecipeSorter.SortKey> range;
+        if (low == null && high == null) {
+            range = sortedByName;
+        } else if (low == null) {
+            range = sortedByName.headSet(RecipeSorter.SortKey.lowerBound(high));
+        } else if (high == null) {
+            range = sortedByName.tailSet(RecipeSorter.SortKey.lowerBound(low));
+        } else if (low.compareTo(high) >= 0) {
+            return new ArrayList<>();
+        } else {
+            range = sortedByName.subSet(RecipeSorter.SortKey.lowerBound(low), RecipeSorter.SortKey.lowerBound(high));
+        }
+        // Sized lazily: size() on a range view would walk the range.
+        List<Recipe> matches = new ArrayList<>();
+        for (RecipeSorter.SortKey key : range) {
+            matches.add(key.recipe);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a read-only live view of the recipes in insertion order.
+     *
+     * <p>Unlike {@link #getAllRecipes()} this does not copy, so it suits
+     * streaming over very large books (for example when saving). The view
+     * must not be used while the book is being modified.
+     *
+     * @return an unmodifiable view of the stored recipes
+     */
+    Collection<Recipe> recipesView() {
+        return Collections.unmodifiableCollection(recipes.values());
+    }
+
+    /**
+     * Returns the dictionary shared by the ingredient names of this book's recipes.
+     *
+     * @return the ingredient dictionary
+     */
+    IngredientDictionary ingredientDictionary() {
+        return dictionary;
     }
 
     /**
@@ -78,40 +427,446 @@ public class RecipeBook {
     /**
      * Searches for recipes whose name contains the specified query string.
      *
-     * <p>The search is case-insensitive and matches partial names.
+     * <p>The search is case-insensitive and matches partial names. Candidates
+     * are found through a trigram index over the folded names, so only
+     * recipes sharing every trigram of the query are checked.
      *
      * @param query the search string
      * @return a list of recipes matching the query, in insertion order
      */
     public List<Recipe> searchByName(String query) {
+        long start = RecipeMetrics.start();
+        List<Recipe> results = findByName(query);
+        RecipeMetrics.record(RecipeMetrics.Operation.SEARCH_BY_NAME, start, results.size());
+        return results;
+    }
+
+    private List<Recipe> findByName(String query) {
         if (query == null || query.isEmpty()) {
             return new ArrayList<>();
         }
-        
-        String lowerQuery = query.toLowerCase();
-        List<Recipe> results = new ArrayList<>();
-        
-        for (Recipe r : recipes) {
-            try {
-                String recipeName = getRecipeName(r);
-                if (recipeName.toLowerCase().contains(lowerQuery)) {
-                    results.add(r);
-                }
-            } catch (ReflectiveOperationException e) {
-                // Skip recipes we can't access
+        String folded = fold(query);
+        String key = "n:" + folded;
+        List<Recipe> results = cachedResult(key);
+        if (results != null) {
+            return results;
+        }
+
+        results = new ArrayList<>();
+        for (int id : nameTrigrams.search(folded)) {
+            results.add(recipes.get(id));
+        }
+        cacheResult(key, results);
+        return results;
+    }
+
+    /**
+     * Searches for recipes with an ingredient whose name contains the query.
+     *
+     * <p>The search is case-insensitive, matches partial ingredient names, and
+     * ignores leading and trailing whitespace in the query. Candidates come
+     * from the ingredient token index; multi-word queries are then checked
+     * against the full ingredient names.
+     *
+     * @param query the search string
+     * @return a new list of matching recipes, in insertion order
+     */
+    public List<Recipe> searchByIngredient(String query) {
+        long start = RecipeMetrics.start();
+        List<Recipe> results = findByIngredient(query);
+        RecipeMetrics.record(RecipeMetrics.Operation.SEARCH_BY_INGREDIENT, start, results.size());
+        return results;
+    }
+
+    private List<Recipe> findByIngredient(String query) {
+        String folded = query == null ? "" : fold(query.trim());
+        if (folded.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String key = "i:" + folded;
+        List<Recipe> results = cachedResult(key);
+        if (results != null) {
+            return results;
+        }
+
+        results = new ArrayList<>();
+        List<String> queryTokens = TokenIndex.tokenize(folded);
+        for (int id : tokens.matchAll(queryTokens, false, true)) {
+            Recipe r = recipes.get(id);
+            if (queryTokens.size() == 1 || hasIngredientContaining(r, folded)) {
+                results.add(r);
             }
         }
-        
+        cacheResult(key, results);
+        return results;
+    }
+
+    /**
+     * Searches for recipes matching every whitespace-separated token of the query.
+     *
+     * <p>A token matches a recipe if it occurs (case-insensitive, partial match)
+     * in the recipe name or in any ingredient name. For example {@code garlic oil}
+     * matches a recipe with "garlic cloves" and "olive oil (cup)". Results are
+     * computed by intersecting the posting lists of each token, smallest first.
+     *
+     * @param query the search string
+     * @return a new list of matching recipes, in insertion order
+     */
+    public List<Recipe> search(String query) {
+        long start = RecipeMetrics.start();
+        List<Recipe> results = findAll(query);
+        RecipeMetrics.record(RecipeMetrics.Operation.SEARCH, start, results.size());
+        return results;
+    }
+
+    private List<Recipe> findAll(String query) {
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        List<String> queryTokens = TokenIndex.tokenize(fold(query));
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String key = "s:" + String.join(" ", queryTokens);
+        List<Recipe> results = cachedResult(key);
+        if (results != null) {
+            return results;
+        }
+
+        results = new ArrayList<>();
+        for (int id : tokens.matchAll(queryTokens, true, true)) {
+            results.add(recipes.get(id));
+        }
+        cacheResult(key, results);
         return results;
     }
 
     /**
-     * Helper method to get recipe name using reflection.
-     * This is needed because Recipe's name field is private.
+     * Searches for recipes whose names approximately match every word of the
+     * query, allowing more typos in longer words.
+     *
+     * <p>Query words of up to 2 characters must match a name word exactly,
+     * words of 3 to 5 characters may be 1 edit away, and longer words 2
+     * edits. See {@link #searchFuzzy(String, int)} for matching and ranking.
+     *
+     * @param query the search string
+     * @return a new list of matching recipes, closest first
+     */
+    public List<Recipe> searchFuzzy(String query) {
+        long start = RecipeMetrics.start();
+        List<Recipe> results = findFuzzy(query, -1);
+        RecipeMetrics.record(RecipeMetrics.Operation.SEARCH_FUZZY, start, results.size());
+        return results;
+    }
+
+    /**
+     * Searches for recipes whose names approximately match every word of the query.
+     *
+     * <p>Matching is case-insensitive and word by word: each query word must
+     * be within {@code maxDistance} edits (Levenshtein distance) of some word
+     * of the recipe name, so {@code "choclate cake"} finds "Chocolate Cake".
+     * Results are ranked by the sum of those distances, closest first, and
+     * then by insertion order. Name words are indexed by trigram, so edit
+     * distances are only computed for words that share enough trigrams with
+     * the query word, not for every recipe.
+     *
+     * @param query the search string
+     * @param maxDistance the largest edit distance allowed per word, from 0 to {@link #MAX_FUZZY_DISTANCE}
+     * @return a new list of matching recipes, closest first
+     * @throws IllegalArgumentException if maxDistance is out of range
+     */
+    public List<Recipe> searchFuzzy(String query, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_FUZZY_DISTANCE);
+        }
+        long start = RecipeMetrics.start();
+        List<Recipe> results = findFuzzy(query, maxDistance);
+        RecipeMetrics.record(RecipeMetrics.Operation.SEARCH_FUZZY, start, results.size());
+        return results;
+    }
+
+    // maxDistance -1 picks a distance per word from its length.
+    private List<Recipe> findFuzzy(String query, int maxDistance) {
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        List<String> queryTokens = TokenIndex.tokenize(fold(query));
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String key = "f" + maxDistance + ":" + String.join(" ", queryTokens);
+        List<Recipe> results = cachedResult(key);
+        if (results != null) {
+            return results;
+        }
+
+        int[] maxDistances = new int[queryTokens.size()];
+        for (int i = 0; i < maxDistances.length; i++) {
+            int length = queryTokens.get(i).length();
+            maxDistances[i] = maxDistance >= 0 ? maxDistance : length <= 2 ? 0 : length <= 5 ? 1 : 2;
+        }
+        // Entries are (distance << 32) | id, so sorting ranks closest first, then by insertion order.
+        long[] ranked = tokens.fuzzyMatchNames(queryTokens, maxDistances);
+        Arrays.sort(ranked);
+        results = new ArrayList<>(ranked.length);
+        for (long entry : ranked) {
+            results.add(recipes.get((int) entry));
+        }
+        cacheResult(key, results);
+        return results;
+    }
+
+    /**
+     * Returns the recipes that satisfy a predicate, in insertion order.
+     *
+     * <p>This is a full scan for queries the indexes cannot answer. Books
+     * with at least {@link #getParallelScanThreshold()} recipes are split
+     * into chunks tested in parallel on the common fork/join pool, so the
+     * predicate must be safe to call from several threads at once. Results
+     * are not cached.
+     *
+     * @param predicate the test to apply to each recipe; must not be null
+     * @return a new list of matching recipes, in insertion order
+     * @throws IllegalArgumentException if predicate is null
+     */
+    public List<Recipe> filter(Predicate<? super Recipe> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate must not be null");
+        }
+        long start = RecipeMetrics.start();
+        List<Recipe> results = scan(predicate);
+        RecipeMetrics.record(RecipeMetrics.Operation.FILTER, start, results.size());
+        return results;
+    }
+
+    /**
+     * Sets the book size from which {@link #filter} scans in parallel.
+     *
+     * <p>Below the threshold, forking costs more than it saves. The best
+     * value depends on the machine and the predicate; the {@code filter}
+     * benchmarks in {@code bench/} show where the two curves cross. Books of
+     * at most 1024 recipes fit in one scan chunk and are always scanned on
+     * the calling thread, whatever the threshold.
+     *
+     * @param threshold the smallest size scanned in parallel; 0 scans every
+     *        book larger than one chunk in parallel and
+     *        {@link Integer#MAX_VALUE} never scans in parallel
+     * @throws IllegalArgumentException if threshold is negative
+     */
+    public void setParallelScanThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        parallelScanThreshold = threshold;
+    }
+
+    /**
+     * Returns the book size from which {@link #filter} scans in parallel.
+     *
+     * @return the parallel scan threshold
+     */
+    public int getParallelScanThreshold() {
+        return parallelScanThreshold;
+    }
+
+    private List<Recipe> scan(Predicate<? super Recipe> predicate) {
+        if (scanVersion != modCount) {
+            scanOrder = recipes.values().toArray(new Recipe[0]);
+            scanVersion = modCount;
+        }
+        return RecipeScan.filter(scanOrder, predicate, parallelScanThreshold);
+    }
+
+    /**
+     * Sets how many search results are cached.
+     *
+     * <p>Replacing the cache discards its entries and statistics.
+     *
+     * @param capacity the maximum number of cached queries; 0 disables caching
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setSearchCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        searchCache = capacity == 0 ? null : new QueryCache(capacity);
+    }
+
+    /**
+     * Returns hit, miss and eviction counts for the search result cache.
+     *
+     * @return the current statistics; all zero if caching is disabled
+     */
+    public CacheStats getSearchCacheStats() {
+        return searchCache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : searchCache.stats();
+    }
+
+    private List<Recipe> cachedResult(String key) {
+        return searchCache == null ? null : searchCache.get(key, modCount);
+    }
+
+    private void cacheResult(String key, List<Recipe> results) {
+        if (searchCache != null) {
+            searchCache.put(key, results);
+        }
+    }
+
+    private void ingredientAdded(Recipe recipe, int index) {
+        modCount++;
+        PostingList ids = idsByRecipe.get(recipe);
+        String folded = foldedIngredient(recipe, index);
+        for (int i = 0; i < ids.size(); i++) {
+            tokens.addIngredient(ids.get(i), folded);
+        }
+    }
+
+    // Returns a recipe's case-folded ingredient name. Names in this book's
+    // dictionary are folded once; a recipe that was since bound to another
+    // book's dictionary is folded directly.
+    private String foldedIngredient(Recipe recipe, int index) {
+        if (recipe.dictionary() != dictionary) {
+            return fold(recipe.getIngredientName(index));
+        }
+        int nameId = recipe.getIngredientId(index);
+        if (nameId >= foldedIngredientNames.length) {
+            foldedIngredientNames = Arrays.copyOf(foldedIngredientNames,
+                                                  Math.max(nameId + 1, foldedIngredientNames.length * 2));
+        }
+        String folded = foldedIngredientNames[nameId];
+        if (folded == null) {
+            folded = fold(dictionary.name(nameId));
+            foldedIngredientNames[nameId] = folded;
+        }
+        return folded;
+    }
+
+    private boolean hasIngredientContaining(Recipe recipe, String foldedQuery) {
+        for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+            if (foldedIngredient(recipe, i).contains(foldedQuery)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Recipe firstRecipe(Map<String, PostingList> index, String key) {
+        PostingList ids = index.get(key);
+        return ids == null ? null : recipes.get(ids.get(0));
+    }
+
+    private static void indexId(Map<String, PostingList> index, String key, int id) {
+        index.computeIfAbsent(key, k -> new PostingList()).add(id);
+    }
+
+    private static void unindexId(Map<String, PostingList> index, String key, int id) {
+        PostingList ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // Merges the index with a sorted batch of new keys into one sorted array.
+    private static RecipeSorter.SortKey[] merge(SortedSet<RecipeSorter.SortKey> index, RecipeSorter.SortKey[] keys) {
+        RecipeSorter.SortKey[] merged = new RecipeSorter.SortKey[index.size() + keys.length];
+        int i = 0;
+        int k = 0;
+        for (RecipeSorter.SortKey key : index) {
+            while (k < keys.length && keys[k].compareTo(key) < 0) {
+                merged[i++] = keys[k++];
+            }
+            merged[i++] = key;
+        }
+        while (k < keys.length) {
+            merged[i++] = keys[k++];
+        }
+        return merged;
+    }
+
+    /**
+     * A read-only SortedSet over a range of a sorted array of distinct keys,
+     * in their natural order. Range views and lookups binary-search the array.
+     */
+    private static final class SortedArraySet extends AbstractSet<RecipeSorter.SortKey>
+            implements SortedSet<RecipeSorter.SortKey> {
+        private final RecipeSorter.SortKey[] keys;
+        private final int from;
+        private final int to;
+
+        SortedArraySet(RecipeSorter.SortKey[] keys) {
+            this(keys, 0, keys.length);
+        }
+
+        private SortedArraySet(RecipeSorter.SortKey[] keys, int from, int to) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<RecipeSorter.SortKey> iterator() {
+            return Arrays.asList(keys).subList(from, to).iterator();
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof RecipeSorter.SortKey && Arrays.binarySearch(keys, from, to, o) >= 0;
+        }
+
+        @Override
+        public Comparator<? super RecipeSorter.SortKey> comparator() {
+            return null;
+        }
+
+        @Override
+        public RecipeSorter.SortKey first() {
+            if (from == to) {
+                throw new NoSuchElementException();
+            }
+            return keys[from];
+        }
+
+        @Override
+        public RecipeSorter.SortKey last() {
+            if (from == to) {
+                throw new NoSuchElementException();
+            }
+            return keys[to - 1];
+        }
+
+        @Override
+        public SortedSet<RecipeSorter.SortKey> subSet(RecipeSorter.SortKey fromKey, RecipeSorter.SortKey toKey) {
+            if (fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            return new SortedArraySet(keys, lowerBound(fromKey), lowerBound(toKey));
+        }
+
+        @Override
+        public SortedSet<RecipeSorter.SortKey> headSet(RecipeSorter.SortKey toKey) {
+            return new SortedArraySet(keys, from, lowerBound(toKey));
+        }
+
+        @Override
+        public SortedSet<RecipeSorter.SortKey> tailSet(RecipeSorter.SortKey fromKey) {
+            return new SortedArraySet(keys, lowerBound(fromKey), to);
+        }
+
+        // Index of the first key in this range not less than key.
+        private int lowerBound(RecipeSorter.SortKey key) {
+            int i = Arrays.binarySearch(keys, from, to, Objects.requireNonNull(key));
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+
+    /**
+     * Case-folds a recipe name for case-insensitive comparison.
      */
-    private String getRecipeName(Recipe recipe) throws ReflectiveOperationException {
-        java.lang.reflect.Field nameField = Recipe.class.getDeclaredField("name");
-        nameField.setAccessible(true);
-        return (String) nameField.get(recipe);
+    private static String fold(String name) {
+        return name.toLowerCase();
     }
 }
@@ -0,0 +1,43 @@
+import java.io.IOException;
+
+/**
+ * Thrown when recipe data being loaded is malformed or violates the
+ * Validation Policy in DATA_MODEL.md.
+ *
+ * <p>The message names the reason and, when known, where in the input the
+ * problem was found (recipe index, ingredient index, line and column).
+ */
+public class RecipeFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int recipeIndex;
+
+    /**
+     * Creates an exception for a problem that is not tied to a specific recipe.
+     *
+     * @param message the reason, including the location in the input
+     */
+    public RecipeFormatException(String message) {
+        this(message, -1);
+    }
+
+    /**
+     * Creates an exception for a problem in a specific recipe.
+     *
+     * @param message the reason, including the location in the input
+     * @param recipeIndex the zero-based index of the offending recipe, or -1
+     */
+    public RecipeFormatException(String message, int recipeIndex) {
+        super(message);
+        this.recipeIndex = recipeIndex;
+    }
+
+    /**
+     * Returns the zero-based index of the recipe where the problem was found.
+     *
+     * @return the recipe index, or -1 if the problem is not within a recipe
+     */
+    public int getRecipeIndex() {
+        return recipeIndex;
+    }
+}
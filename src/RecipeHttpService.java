@@ -0,0 +1,434 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small HTTP service over a {@link ConcurrentRecipeBook}, for other
+ * processes on the same host.
+ *
+ * <p>Endpoints (all {@code GET}, all answering with JSON):
+ * <pre>
+ * /recipes                     every recipe as {"name", "servings"}
+ * /recipes?q=QUERY             recipes whose name contains QUERY (case-insensitive)
+ * /recipes/NAME                one recipe in the persistence format (DATA_MODEL.md)
+ * /recipes/NAME?servings=N     the same recipe scaled to N servings; the stored recipe is unchanged
+ * /cart?recipe=A&amp;recipe=B     the combined ingredients of the named recipes
+ * </pre>
+ * Errors are answered with a status of 400, 404 or 405 and a body of
+ * {@code {"error": "..."}}.
+ *
+ * <p>Every request reads one snapshot of the book, so it sees a consistent
+ * state without locking, and writers may keep adding or removing recipes
+ * while the service runs. Recipes must not be modified after they are
+ * added (see {@link ConcurrentRecipeBook}).
+ *
+ * <p>By default requests are handled on a fixed pool of
+ * {@link #defaultThreadCount()} platform threads, which the service starts
+ * and stops with itself. To run them elsewhere, such as one virtual thread
+ * per request with {@code Executors.newVirtualThreadPerTaskExecutor()} on
+ * Java 21 and later, pass an executor to
+ * {@link #RecipeHttpService(ConcurrentRecipeBook, Executor)};
+ * {@link #getExecutorDescription()} tells which one is serving. Responses
+ * are streamed in chunks through a small buffer rather than built in
+ * memory first.
+ */
+public class RecipeHttpService {
+    /** Default length of the queue of connections waiting to be accepted. */
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    // Characters buffered per response before a chunk is sent.
+    private static final int RESPONSE_BUFFER_SIZE = 8192;
+
+    private final ConcurrentRecipeBook book;
+    // Caller's executor, or null to run a pool of our own while started.
+    private final Executor requestExecutor;
+    private HttpServer server;
+    private ExecutorService ownPool;
+
+    /**
+     * Creates a service for a book that handles requests on its own pool of
+     * {@link #defaultThreadCount()} platform threads. Call {@link #start} to
+     * begin serving.
+     *
+     * @param book the book to serve; must not be null
+     * @throws IllegalArgumentException if book is null
+     */
+    public RecipeHttpService(ConcurrentRecipeBook book) {
+        if (book == null) {
+            throw new IllegalArgumentException("Book must not be null");
+        }
+        this.book = book;
+        this.requestExecutor = null;
+    }
+
+    /**
+     * Creates a service for a book that handles requests on the given
+     * executor. The service does not shut the executor down; the caller
+     * does, after {@link #stop}.
+     *
+     * @param book the book to serve; must not be null
+     * @param executor the executor to run requests on; must not be null
+     * @throws IllegalArgumentException if book or executor is null
+     */
+    public RecipeHttpService(ConcurrentRecipeBook book, Executor executor) {
+        if (book == null) {
+            throw new IllegalArgumentException("Book must not be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        this.book = book;
+        this.requestExecutor = executor;
+    }
+
+    /**
+     * Returns the number of platform threads in the pool a service uses when
+     * it is not given an executor: four per available processor, and at
+     * least eight.
+     *
+     * @return the default pool size
+     */
+    public static int defaultThreadCount() {
+        return Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Serves the recipes of a JSON file on the loopback address.
+     *
+     * @param args the port (0 for any free port), optionally followed by a recipe JSON file
+     * @throws IOException if the file cannot be read or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java RecipeHttpService <port> [recipes.json]");
+            return;
+        }
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        if (args.length == 2) {
+            List<Recipe> loaded = new ArrayList<>();
+            new RecipeJsonReader().forEach(Paths.get(args[1]), loaded::add);
+            book.addAll(loaded);
+        }
+        RecipeHttpService service = new RecipeHttpService(book);
+        service.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0])),
+                      DEFAULT_BACKLOG);
+        System.out.println("Serving " + book.size() + " recipes on http://localhost:" + service.getPort()
+                           + " (" + service.getExecutorDescription() + ")");
+    }
+
+    /**
+     * Starts serving on an address.
+     *
+     * @param address the address to bind; port 0 picks a free port
+     * @param backlog the maximum number of connections waiting to be accepted
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalStateException if the service is already running
+     */
+    public synchronized void start(InetSocketAddress address, int backlog) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Service is already running");
+        }
+        HttpServer created = HttpServer.create(address, backlog);
+        created.createContext("/recipes", this::handleRecipes);
+        created.createContext("/cart", this::handleCart);
+        Executor executor = requestExecutor;
+        if (executor == null) {
+            ownPool = newPlatformPool();
+            executor = ownPool;
+        }
+        created.setExecutor(executor);
+        created.start();
+        server = created;
+    }
+
+    /**
+     * Stops serving. Requests in progress get up to a second to finish.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        if (ownPool != null) {
+            ownPool.shutdown();
+            ownPool = null;
+        }
+        server = null;
+    }
+
+    /**
+     * Returns the port the service is bound to.
+     *
+     * @return the local port
+     * @throws IllegalStateException if the service is not running
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Service is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Describes the executor requests run on, such as
+     * {@code "pool of 8 platform threads"}, for logs and load-test reports.
+     *
+     * @return a short description of the request executor
+     */
+    public String getExecutorDescription() {
+        if (requestExecutor == null) {
+            return "pool of " + defaultThreadCount() + " platform threads";
+        }
+        return "caller's executor (" + requestExecutor.getClass().getName() + ")";
+    }
+
+    private static ExecutorService newPlatformPool() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(defaultThreadCount(), task -> {
+            Thread t = new Thread(task, "recipe-http-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void handleRecipes(HttpExchange exchange) throws IOException {
+        try {
+            if (!isGet(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            List<String[]> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            ConcurrentRecipeBook.Snapshot snapshot = book.snapshot();
+
+            if (path.equals("/recipes") || path.equals("/recipes/")) {
+                String query = param(params, "q");
+                List<Recipe> recipes = query == null ? snapshot.getAllRecipes() : snapshot.searchByName(query);
+                try (Writer out = beginJson(exchange, 200)) {
+                    writeSummaries(recipes, out);
+                }
+                return;
+            }
+
+            if (!path.startsWith("/recipes/")) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            String name = path.substring("/recipes/".length());
+            Recipe recipe = snapshot.getRecipe(name);
+            if (recipe == null) {
+                sendError(exchange, 404, "No recipe named '" + name + "'");
+                return;
+            }
+            String servings = param(params, "servings");
+            if (servings != null) {
+                int target = parsePositive(servings);
+                if (target <= 0) {
+                    sendError(exchange, 400, "servings must be a positive integer");
+                    return;
+                }
+                recipe = scaledCopy(recipe, target);
+            }
+            try (Writer out = beginJson(exchange, 200)) {
+                writeRecipe(recipe, out);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCart(HttpExchange exchange) throws IOException {
+        try {
+            if (!isGet(exchange)) {
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals("/cart")) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            ConcurrentRecipeBook.Snapshot snapshot = book.snapshot();
+            List<Recipe> selected = new ArrayList<>();
+            for (String[] p : parseQuery(exchange.getRequestURI().getRawQuery())) {
+                if (!p[0].equals("recipe")) {
+                    continue;
+                }
+                Recipe recipe = snapshot.getRecipe(p[1]);
+                if (recipe == null) {
+                    sendError(exchange, 404, "No recipe named '" + p[1] + "'");
+                    return;
+                }
+                selected.add(recipe);
+            }
+            if (selected.isEmpty()) {
+                sendError(exchange, 400, "At least one recipe parameter is required");
+                return;
+            }
+            ShoppingCart cart = ShoppingCart.of(selected);
+            try (Writer out = beginJson(exchange, 200)) {
+                out.write("{\"items\": [");
+                List<Ingredient> items = cart.getItems();
+                for (int i = 0; i < items.size(); i++) {
+                    out.write(i == 0 ? "\n  { \"name\": " : ",\n  { \"name\": ");
+                    writeString(items.get(i).getName(), out);
+                    out.write(", \"amount\": ");
+                    writeNumber(items.get(i).getAmount(), out);
+                    out.write(" }");
+                }
+                out.write(items.isEmpty() ? "]}\n" : "\n]}\n");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Copies through the public API so the shared recipe and its dictionary are only read.
+    private static Recipe scaledCopy(Recipe recipe, int servings) {
+        Recipe copy = new Recipe(recipe.getName(), recipe.getServings());
+        for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+            copy.addIngredient(recipe.getIngredientName(i), recipe.getIngredientAmount(i));
+        }
+        copy.scaleToServings(servings);
+        return copy;
+    }
+
+    private static void writeSummaries(List<Recipe> recipes, Writer out) throws IOException {
+        out.write("{\"count\": ");
+        out.write(Integer.toString(recipes.size()));
+        out.write(", \"recipes\": [");
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe r = recipes.get(i);
+            out.write(i == 0 ? "\n  { \"name\": " : ",\n  { \"name\": ");
+            writeString(r.getName(), out);
+            out.write(", \"servings\": ");
+            out.write(Integer.toString(r.getServings()));
+            out.write(" }");
+        }
+        out.write(recipes.isEmpty() ? "]}\n" : "\n]}\n");
+    }
+
+    private static void writeRecipe(Recipe recipe, Writer out) throws IOException {
+        out.write("{\n  \"name\": ");
+        writeString(recipe.getName(), out);
+        out.write(",\n  \"servings\": ");
+        out.write(Integer.toString(recipe.getServings()));
+        out.write(",\n  \"ingredients\": [");
+        int count = recipe.totalIngredientCount();
+        for (int i = 0; i < count; i++) {
+            out.write(i == 0 ? "\n    { \"name\": " : ",\n    { \"name\": ");
+            writeString(recipe.getIngredientName(i), out);
+            out.write(", \"amount\": ");
+            writeNumber(recipe.getIngredientAmount(i), out);
+            out.write(" }");
+        }
+        out.write(count > 0 ? "\n  ]\n}\n" : "]\n}\n");
+    }
+
+    // Same number rules as RecipeJsonWriter: whole values without a fraction, others round-trip exactly.
+    private static void writeNumber(double value, Writer out) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.write(Long.toString((long) value));
+        } else {
+            out.write(Double.toString(value));
+        }
+    }
+
+    private static void writeString(String s, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    private static Writer beginJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        // A length of 0 selects chunked encoding, so the body is sent as it is written.
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                                  RESPONSE_BUFFER_SIZE);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer out = beginJson(exchange, status)) {
+            out.write("{\"error\": ");
+            writeString(message, out);
+            out.write("}\n");
+        }
+    }
+
+    private static boolean isGet(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestMethod().equals("GET")) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", "GET");
+        sendError(exchange, 405, "Only GET is supported");
+        return false;
+    }
+
+    // Returns the decoded name/value pairs of a raw query string, in order.
+    private static List<String[]> parseQuery(String rawQuery) {
+        List<String[]> params = new ArrayList<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = decode(eq < 0 ? pair : pair.substring(0, eq));
+            String value = decode(eq < 0 ? "" : pair.substring(eq + 1));
+            if (name != null && value != null) {
+                params.add(new String[] {name, value});
+            }
+        }
+        return params;
+    }
+
+    private static String param(List<String[]> params, String name) {
+        for (String[] p : params) {
+            if (p[0].equals(name)) {
+                return p[1];
+            }
+        }
+        return null;
+    }
+
+    // Returns null for malformed percent-encoding.
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Returns the value, or -1 if it is not a positive int.
+    private static int parsePositive(String s) {
+        try {
+            int value = Integer.parseInt(s);
+            return value > 0 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,813 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A recipe book kept on disk as a snapshot plus an append-only journal of
+ * the changes made since.
+ *
+ * <p>Every change ({@link #addRecipe(Recipe)}, {@link #removeRecipe(String)},
+ * {@link #addIngredient(String, String, double)} and
+ * {@link #scaleToServings(String, int)}) is applied to the in-memory book
+ * and appended to the journal as one small record, so saving costs time in
+ * proportion to the change, not to the book. A change method returns once
+ * its record is on disk. Records of writers that arrive while a sync is in
+ * progress are written and synced together by the next one (group commit),
+ * so concurrent writers share syncs instead of queueing for one each.
+ *
+ * <p>{@link #open(Path)} recovers the book by loading the newest snapshot
+ * and replaying the journal written after it. A record cut short by a crash
+ * at the end of the journal is discarded; any other damaged record is an
+ * error. {@link #compact()} folds the journal into a new snapshot and starts
+ * an empty journal; it also runs on a background thread once the journal
+ * grows past {@link #setCompactionThreshold(long) the threshold}. A failed
+ * background compaction loses nothing, since the journal still holds every
+ * change; its error is kept for {@link #getCompactionFailure()}.
+ *
+ * <p>Directory layout: {@code snapshot-G.bin} is a {@link RecipeSnapshot}
+ * holding every change made before journal generation {@code G}, and
+ * {@code journal-G.log} holds the changes of generation {@code G}. Journal
+ * files are little-endian: an 8-byte header (magic, version), then records
+ * of the form
+ * <pre>
+ * length    int, bytes in payload
+ * crc       int, CRC-32 of payload
+ * payload   operation byte, then its fields; strings are an int byte
+ *           count followed by UTF-8 bytes
+ *   ADD_RECIPE        name, servings (int), ingredient count (int),
+ *                     then per ingredient: name, amount (double)
+ *   REMOVE_RECIPE     name
+ *   ADD_INGREDIENT    recipe name, ingredient name, amount (double)
+ *   SCALE             recipe name, servings (int)
+ * </pre>
+ *
+ * <p>A journal is thread-safe. It keeps its own copy of each added recipe.
+ * Recipes returned by it must not be modified directly; such changes would
+ * not be journaled.
+ */
+public final class RecipeJournal implements Closeable {
+    /** Journal size, in bytes, above which compaction starts by default. */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 16L << 20;
+
+    private static final int MAGIC = 0x4A504352; // "RCPJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte ADD_RECIPE = 1;
+    private static final byte REMOVE_RECIPE = 2;
+    private static final byte ADD_INGREDIENT = 3;
+    private static final byte SCALE = 4;
+
+    private final Path directory;
+    private final RecipeBook book;
+    // Guards the book, the pending buffer and the fields below.
+    private final Object lock = new Object();
+    // Held for a whole compaction so only one runs at a time.
+    private final Object compactionLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long generation;
+    private long journalBytes;
+    private ByteBuffer pending = newBuffer(4096);
+    private ByteBuffer spare = newBuffer(4096);
+    private long appendedRecords;
+    private long durableRecords;
+    private boolean syncing;
+    private long syncCount;
+    private IOException failure;
+    private boolean closing;
+    private boolean closed;
+
+    private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private boolean compactionScheduled;
+    private ExecutorService compactor;
+    private IOException compactionFailure;
+
+    private RecipeJournal(Path directory, RecipeBook book, FileChannel channel, long generation, long journalBytes) {
+        this.directory = directory;
+        this.book = book;
+        this.channel = channel;
+        this.generation = generation;
+        this.journalBytes = journalBytes;
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the book stored there.
+     *
+     * <p>The directory is created if needed; an empty directory holds an
+     * empty book. Files left behind by an interrupted compaction are
+     * removed.
+     *
+     * @param directory the directory holding the snapshot and journal files
+     * @return the opened journal
+     * @throws RecipeFormatException if a snapshot or journal is damaged
+     * @throws IOException if the files cannot be read or written
+     */
+    public static RecipeJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long snapshotGeneration = -1;
+        long lastJournal = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long g = generationOf(name, "snapshot-", ".bin");
+                if (g > snapshotGeneration) {
+                    snapshotGeneration = g;
+                }
+                lastJournal = Math.max(lastJournal, generationOf(name, "journal-", ".log"));
+            }
+        }
+
+        RecipeBook book = snapshotGeneration < 0
+            ? new RecipeBook()
+            : RecipeSnapshot.open(snapshotPath(directory, snapshotGeneration)).toRecipeBook();
+        long generation = Math.max(0, snapshotGeneration);
+        long journalBytes = HEADER_SIZE;
+        for (long g = generation; g <= lastJournal; g++) {
+            Path journal = journalPath(directory, g);
+            if (Files.exists(journal)) {
+                journalBytes = replay(journal, book);
+            }
+        }
+        generation = Math.max(generation, lastJournal);
+
+        FileChannel channel = FileChannel.open(journalPath(directory, generation), StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            journalBytes = HEADER_SIZE;
+            channel.truncate(0);
+            channel.write(header(), 0);
+            channel.force(false);
+        } else if (channel.size() > journalBytes) {
+            // Drop a record cut short by a crash so new records follow the last good one.
+            channel.truncate(journalBytes);
+            channel.force(false);
+        }
+        channel.position(journalBytes);
+        deleteBefore(directory, generation, snapshotGeneration);
+        return new RecipeJournal(directory, book, channel, generation, journalBytes);
+    }
+
+    /**
+     * Adds a copy of a recipe to the end of the book.
+     *
+     * <p>The copy has the recipe's current servings and amounts, exactly as
+     * the journal records them. Later changes to {@code recipe} itself do
+     * not reach the book; make them through this journal, on the recipe's
+     * name.
+     *
+     * @param recipe the recipe to add; must not be null
+     * @throws IllegalArgumentException if recipe is null
+     * @throws IOException if the journal cannot be written
+     */
+    public void addRecipe(Recipe recipe) throws IOException {
+        if (recipe == null) {
+            throw new IllegalArgumentException("Recipe must not be null");
+        }
+        long record;
+        synchronized (lock) {
+            checkWritable();
+            int start = beginRecord(ADD_RECIPE);
+            putString(recipe.getName());
+            int count = recipe.totalIngredientCount();
+            ensure(8);
+            pending.putInt(recipe.getServings()).putInt(count);
+            for (int i = 0; i < count; i++) {
+                putString(recipe.getIngredientName(i));
+                ensure(8);
+                pending.putDouble(recipe.getIngredientAmount(i));
+            }
+            record = endRecord(start);
+            Recipe copy = new Recipe(recipe.getName(), recipe.getServings(), book.ingredientDictionary());
+            for (int i = 0; i < count; i++) {
+                copy.addIngredient(recipe.getIngredientName(i), recipe.getIngredientAmount(i));
+            }
+            book.addRecipe(copy);
+        }
+        commit(record);
+    }
+
+    /**
+     * Removes the first recipe with the specified name.
+     *
+     * <p>Name matching is case-sensitive. Nothing is journaled if no recipe
+     * matches.
+     *
+     * @param recipeName the name of the recipe to remove
+     * @return true if a recipe was removed
+     * @throws IOException if the journal cannot be written
+     */
+    public boolean removeRecipe(String recipeName) throws IOException {
+        long record;
+        synchronized (lock) {
+            checkWritable();
+            if (book.getRecipe(recipeName) == null) {
+                return false;
+            }
+            int start = beginRecord(REMOVE_RECIPE);
+            putString(recipeName);
+            record = endRecord(start);
+            book.removeRecipe(recipeName);
+        }
+        commit(record);
+        return true;
+    }
+
+    /**
+     * Adds an ingredient to the first recipe with the specified name.
+     *
+     * @param recipeName the recipe name (case-sensitive)
+     * @param ingredientName the ingredient name; must not be blank
+     * @param amount the amount at the recipe's current servings; must be positive
+     * @throws IllegalArgumentException if no recipe has that name, or the
+     *         ingredient name or amount is invalid
+     * @throws IOException if the journal cannot be written
+     */
+    public void addIngredient(String recipeName, String ingredientName, double amount) throws IOException {
+        if (ingredientName == null || ingredientName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Ingredient name must be non-null and non-blank");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Ingredient amount must be greater than 0");
+        }
+        long record;
+        synchronized (lock) {
+            checkWritable();
+            Recipe recipe = requireRecipe(recipeName);
+            int start = beginRecord(ADD_INGREDIENT);
+            putString(recipeName);
+            putString(ingredientName);
+            ensure(8);
+            pending.putDouble(amount);
+            record = endRecord(start);
+            recipe.addIngredient(ingredientName, amount);
+        }
+        commit(record);
+    }
+
+    /**
+     * Scales the first recipe with the specified name to a number of servings.
+     *
+     * @param recipeName the recipe name (case-sensitive)
+     * @param servings the target servings; must be positive
+     * @throws IllegalArgumentException if no recipe has that name or
+     *         servings is not positive
+     * @throws IOException if the journal cannot be written
+     */
+    public void scaleToServings(String recipeName, int servings) throws IOException {
+        if (servings <= 0) {
+            throw new IllegalArgumentException("newServings must be positive");
+        }
+        long record;
+        synchronized (lock) {
+            checkWritable();
+            Recipe recipe = requireRecipe(recipeName);
+            int start = beginRecord(SCALE);
+            putString(recipeName);
+            ensure(4);
+            pending.putInt(servings);
+            record = endRecord(start);
+            recipe.scaleToServings(servings);
+        }
+        commit(record);
+    }
+
+    /**
+     * Returns the first recipe with exactly the specified name.
+     *
+     * @param recipeName the recipe name (case-sensitive)
+     * @return the matching recipe, or null if there is none
+     */
+    public Recipe getRecipe(String recipeName) {
+        synchronized (lock) {
+            return book.getRecipe(recipeName);
+        }
+    }
+
+    /**
+     * Returns all recipes in insertion order.
+     *
+     * @return a new list of the recipes
+     */
+    public List<Recipe> getAllRecipes() {
+        synchronized (lock) {
+            return book.getAllRecipes();
+        }
+    }
+
+    /**
+     * Returns the number of recipes in the book.
+     *
+     * @return the number of recipes
+     */
+    public int size() {
+        synchronized (lock) {
+            return book.size();
+        }
+    }
+
+    /**
+     * Returns the size of the current journal file, including records that
+     * are not yet synced.
+     *
+     * @return the journal size in bytes
+     */
+    public long journalSize() {
+        synchronized (lock) {
+            return journalBytes;
+        }
+    }
+
+    /**
+     * Returns the number of times the journal has been synced to disk since
+     * it was opened. With concurrent writers this is usually well below the
+     * number of changes.
+     *
+     * @return the number of syncs
+     */
+    public long syncCount() {
+        synchronized (lock) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Sets the journal size above which a background compaction starts.
+     *
+     * @param bytes the threshold in bytes, or 0 to compact only when
+     *        {@link #compact()} is called
+     * @throws IllegalArgumentException if bytes is negative
+     */
+    public void setCompactionThreshold(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Compaction threshold must not be negative");
+        }
+        synchronized (lock) {
+            compactionThreshold = bytes;
+        }
+    }
+
+    /**
+     * Returns the error of the last background compaction, if it failed.
+     *
+     * <p>A failed compaction leaves every change in the journal, and the
+     * next one started by the threshold or by {@link #compact()} tries
+     * again.
+     *
+     * @return the error, or null if the last background compaction
+     *         succeeded or none has run
+     */
+    public IOException getCompactionFailure() {
+        synchronized (lock) {
+            return compactionFailure;
+        }
+    }
+
+    /**
+     * Folds the journal into a new snapshot and starts an empty journal.
+     *
+     * <p>Writers wait only while the journal is switched and a view of each
+     * recipe is taken, which copies no ingredient data; the snapshot is
+     * streamed to a file and synced while they continue. Recipes changed in
+     * the meantime copy their ingredient columns before rewriting them, so
+     * the snapshot holds the book as it was at the switch. If this fails
+     * part way, the existing files still hold every change.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Recipe.Columns> recipes;
+            long next;
+            FileChannel old;
+            synchronized (lock) {
+                checkWritable();
+                syncPending();
+                recipes = new ArrayList<>(book.size());
+                for (Recipe recipe : book.recipesView()) {
+                    recipes.add(recipe.shareColumns());
+                }
+
+                next = generation + 1;
+                FileChannel created = FileChannel.open(journalPath(directory, next), StandardOpenOption.CREATE,
+                                                       StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                try {
+                    created.write(header());
+                    created.force(false);
+                } catch (IOException e) {
+                    created.close();
+                    throw e;
+                }
+                old = channel;
+                channel = created;
+                generation = next;
+                journalBytes = HEADER_SIZE;
+            }
+            old.close();
+            RecipeSnapshot.write(recipes, snapshotPath(directory, next));
+            deleteBefore(directory, next, next);
+        }
+    }
+
+    /**
+     * Waits for a running compaction, syncs any remaining records and closes
+     * the journal. Later changes fail with an {@link IOException}.
+     *
+     * @throws IOException if the final sync fails
+     */
+    @Override
+    public void close() throws IOException {
+        ExecutorService background;
+        synchronized (lock) {
+            closing = true;
+            background = compactor;
+            compactor = null;
+        }
+        if (background != null) {
+            background.shutdown();
+            try {
+                background.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for compaction");
+            }
+        }
+        synchronized (compactionLock) {
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    if (failure == null) {
+                        syncPending();
+                    }
+                } finally {
+                    closed = true;
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    // Replays a journal file into the book and returns the length of its valid prefix.
+    private static long replay(Path journal, RecipeBook book) throws IOException {
+        ByteBuffer data;
+        try (FileChannel in = FileChannel.open(journal, StandardOpenOption.READ)) {
+            if (in.size() > Integer.MAX_VALUE) {
+                throw new RecipeFormatException(journal + ": journal larger than 2 GB");
+            }
+            data = newBuffer((int) in.size());
+            while (data.hasRemaining() && in.read(data) >= 0) {
+                // keep reading
+            }
+            data.flip();
+        }
+        if (data.limit() < HEADER_SIZE) {
+            return HEADER_SIZE;
+        }
+        if (data.getInt(0) != MAGIC) {
+            throw new RecipeFormatException(journal + ": not a recipe journal");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new RecipeFormatException(journal + ": unsupported journal version " + data.getInt(4));
+        }
+
+        CRC32 crc = new CRC32();
+        int offset = HEADER_SIZE;
+        while (offset < data.limit()) {
+            int length = data.limit() - offset >= RECORD_HEADER_SIZE ? data.getInt(offset) : -1;
+            long end = (long) offset + RECORD_HEADER_SIZE + length;
+            boolean valid = length > 0 && end <= data.limit();
+            if (valid) {
+                ByteBuffer payload = data.duplicate();
+                payload.limit((int) end).position(offset + RECORD_HEADER_SIZE);
+                crc.reset();
+                crc.update(payload);
+                valid = (int) crc.getValue() == data.getInt(offset + 4);
+            }
+            if (!valid) {
+                if (isTornTail(data, offset, end)) {
+                    return offset;
+                }
+                throw new RecipeFormatException(journal + ": damaged record at byte " + offset);
+            }
+            ByteBuffer payload = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            payload.limit((int) end).position(offset + RECORD_HEADER_SIZE);
+            apply(payload, book, journal, offset);
+            offset = (int) end;
+        }
+        return offset;
+    }
+
+    // A bad record is the unfinished end of the last write if nothing valid can follow it.
+    private static boolean isTornTail(ByteBuffer data, int offset, long end) {
+        if (end > offset && end >= data.limit()) {
+            return true;
+        }
+        for (int i = offset; i < data.limit(); i++) {
+            if (data.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void apply(ByteBuffer record, RecipeBook book, Path journal, int offset) throws IOException {
+        try {
+            byte op = record.get();
+            String name = getString(record);
+            if (op == ADD_RECIPE) {
+                Recipe recipe = new Recipe(name, record.getInt(), book.ingredientDictionary());
+                int count = record.getInt();
+                for (int i = 0; i < count; i++) {
+                    recipe.addIngredient(getString(record), record.getDouble());
+                }
+                book.addRecipe(recipe);
+            } else if (op == REMOVE_RECIPE) {
+                if (!book.removeRecipe(name)) {
+                    throw new IllegalArgumentException("no recipe named '" + name + "'");
+                }
+            } else if (op == ADD_INGREDIENT) {
+                Recipe recipe = replayTarget(book, name);
+                String ingredient = getString(record);
+                recipe.addIngredient(ingredient, record.getDouble());
+            } else if (op == SCALE) {
+                replayTarget(book, name).scaleToServings(record.getInt());
+            } else {
+                throw new IllegalArgumentException("unknown operation " + op);
+            }
+            if (record.hasRemaining()) {
+                throw new IllegalArgumentException("unexpected bytes after record");
+            }
+        } catch (RuntimeException e) {
+            // Covers short records (BufferUnderflowException) and values Recipe rejects.
+            throw new RecipeFormatException(journal + ": bad record at byte " + offset + ": " + e.getMessage());
+        }
+    }
+
+    private static Recipe replayTarget(RecipeBook book, String name) {
+        Recipe recipe = book.getRecipe(name);
+        if (recipe == null) {
+            throw new IllegalArgumentException("no recipe named '" + name + "'");
+        }
+        return recipe;
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0 || length > record.remaining()) {
+            throw new IllegalArgumentException("bad string length " + length);
+        }
+        String s = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return s;
+    }
+
+    private Recipe requireRecipe(String recipeName) {
+        Recipe recipe = book.getRecipe(recipeName);
+        if (recipe == null) {
+            throw new IllegalArgumentException("No recipe named '" + recipeName + "'");
+        }
+        return recipe;
+    }
+
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new IOException("Journal failed earlier; reopen it to recover", failure);
+        }
+    }
+
+    // Reserves the record header; returns the record's start in the pending buffer.
+    private int beginRecord(byte op) {
+        ensure(RECORD_HEADER_SIZE + 1);
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_SIZE);
+        pending.put(op);
+        return start;
+    }
+
+    // Fills in the length and checksum; returns the record's sequence number.
+    private long endRecord(int start) {
+        int end = pending.position();
+        ByteBuffer payload = pending.duplicate();
+        payload.limit(end).position(start + RECORD_HEADER_SIZE);
+        crc.reset();
+        crc.update(payload);
+        pending.putInt(start, end - start - RECORD_HEADER_SIZE);
+        pending.putInt(start + 4, (int) crc.getValue());
+        journalBytes += end - start;
+        return ++appendedRecords;
+    }
+
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        pending.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensure(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer grown = newBuffer(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+
+    /*
+     * Waits until a record is on disk. The first waiter to find no sync in
+     * progress writes and syncs everything pending, including records added
+     * by others while it waited; the rest wait for it.
+     */
+    private void commit(long record) throws IOException {
+        while (true) {
+            ByteBuffer batch;
+            long last;
+            FileChannel out;
+            synchronized (lock) {
+                while (syncing && durableRecords < record) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the journal");
+                    }
+                }
+                if (durableRecords >= record) {
+                    break;
+                }
+                if (failure != null) {
+                    throw new IOException("Journal write failed", failure);
+                }
+                syncing = true;
+                batch = pending;
+                pending = spare;
+                spare = null;
+                last = appendedRecords;
+                out = channel;
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    out.write(batch);
+                }
+                out.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                batch.clear();
+                spare = batch;
+                syncing = false;
+                if (error == null) {
+                    syncCount++;
+                    durableRecords = last;
+                } else {
+                    failure = error;
+                }
+                lock.notifyAll();
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    // Writes and syncs pending records while holding the lock; used when the journal is switched or closed.
+    private void syncPending() throws IOException {
+        while (syncing) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the journal");
+            }
+        }
+        if (durableRecords == appendedRecords) {
+            return;
+        }
+        try {
+            pending.flip();
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            pending.clear();
+        }
+        syncCount++;
+        durableRecords = appendedRecords;
+        lock.notifyAll();
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        synchronized (lock) {
+            if (compactionScheduled || closing || compactionThreshold == 0 || journalBytes < compactionThreshold) {
+                return;
+            }
+            if (compactor == null) {
+                compactor = Executors.newSingleThreadExecutor(task -> {
+                    Thread t = new Thread(task, "recipe-journal-compaction");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            compactionScheduled = true;
+            compactor.execute(this::compactInBackground);
+        }
+    }
+
+    private void compactInBackground() {
+        IOException error = null;
+        try {
+            compact();
+        } catch (IOException e) {
+            // The journal still holds every change; the next threshold crossing retries.
+            error = e;
+        } finally {
+            synchronized (lock) {
+                compactionScheduled = false;
+                compactionFailure = error;
+            }
+        }
+    }
+
+    // Deletes journals older than the current generation, snapshots older than the newest,
+    // and temporary files left by a snapshot write that did not finish.
+    private static void deleteBefore(Path directory, long journalGeneration, long snapshotGeneration)
+            throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long journal = generationOf(name, "journal-", ".log");
+                long snapshot = generationOf(name, "snapshot-", ".bin");
+                boolean unfinished = name.startsWith("snapshot-") && name.endsWith(".tmp");
+                if ((journal >= 0 && journal < journalGeneration) || (snapshot >= 0 && snapshot < snapshotGeneration)
+                        || unfinished) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // Returns G for a file named prefix + G + suffix, or -1 for any other name.
+    private static long generationOf(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)
+                || name.length() == prefix.length() + suffix.length()) {
+            return -1;
+        }
+        long g = 0;
+        for (int i = prefix.length(); i < name.length() - suffix.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || g > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            g = g * 10 + (c - '0');
+        }
+        return g;
+    }
+
+    private static Path journalPath(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    private static Path snapshotPath(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = newBuffer(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,556 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads recipes from JSON (see DATA_MODEL.md, Persistence Model).
+ *
+ * <p>The input is parsed as a token stream: each recipe object is parsed,
+ * validated against the Validation Policy, and turned into a {@link Recipe}
+ * as soon as its closing brace is read. Nothing larger than one recipe is
+ * held by the parser, so {@link #forEach} can process a file of any size in
+ * constant memory. {@link #read} collects the recipes into a new
+ * {@link RecipeBook} and only returns it once the whole input has been
+ * validated, which gives the all-or-nothing behaviour the policy requires.
+ *
+ * <p>Unknown fields are skipped. Problems are reported as
+ * {@link RecipeFormatException} with the recipe index and line/column.
+ *
+ * <p>A reader holds parsing buffers and is not thread-safe; use one reader per thread.
+ */
+public class RecipeJsonReader {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final char[] buf = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder();
+    // Ingredients of the recipe currently being parsed, reused between recipes.
+    private final List<String> ingredientNames = new ArrayList<>();
+    private double[] ingredientAmounts = new double[16];
+
+    private Reader in;
+    private IngredientDictionary dictionary;
+    private int pos;
+    private int limit;
+    private int line;
+    private int column;
+    private int recipeIndex;
+
+    /**
+     * Loads a recipe book from a JSON file.
+     *
+     * @param path the file to read
+     * @return a new book holding every recipe in file order
+     * @throws RecipeFormatException if the file is malformed or fails validation
+     * @throws IOException if the file cannot be read
+     */
+    public RecipeBook read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Loads a recipe book from a channel containing a JSON document.
+     *
+     * <p>The returned book is only built if the entire input is valid. The
+     * channel is not closed.
+     *
+     * @param channel the source channel
+     * @return a new book holding every recipe in input order
+     * @throws RecipeFormatException if the input is malformed or fails validation
+     * @throws IOException if reading fails
+     */
+    public RecipeBook read(ReadableByteChannel channel) throws IOException {
+        RecipeBook book = new RecipeBook();
+        List<Recipe> parsed = new ArrayList<>();
+        // Parse names straight into the book's dictionary so adding does not re-encode them.
+        forEach(channel, parsed::add, book.ingredientDictionary());
+        book.addAll(parsed);
+        return book;
+    }
+
+    /**
+     * Streams the recipes of a JSON file to a callback, one at a time.
+     *
+     * @param path the file to read
+     * @param action called with each validated recipe, in file order
+     * @return the number of recipes delivered
+     * @throws RecipeFormatException if the file is malformed or fails validation
+     * @throws IOException if the file cannot be read
+     */
+    public int forEach(Path path, Consumer<Recipe> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return forEach(channel, action);
+        }
+    }
+
+    /**
+     * Streams the recipes of a JSON document to a callback, one at a time.
+     *
+     * <p>Each recipe is validated before it is delivered, but recipes are
+     * delivered as they are read: if a later recipe is invalid, the exception
+     * is thrown after earlier recipes have already been passed to
+     * {@code action}. The channel is not closed.
+     *
+     * @param channel the source channel
+     * @param action called with each validated recipe, in input order
+     * @return the number of recipes delivered
+     * @throws RecipeFormatException if the input is malformed or fails validation
+     * @throws IOException if reading fails
+     */
+    public int forEach(ReadableByteChannel channel, Consumer<Recipe> action) throws IOException {
+        return forEach(channel, action, new IngredientDictionary());
+    }
+
+    private int forEach(ReadableByteChannel channel, Consumer<Recipe> action, IngredientDictionary names)
+            throws IOException {
+        dictionary = names;
+        in = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT), -1);
+        pos = 0;
+        limit = 0;
+        line = 1;
+        column = 1;
+        recipeIndex = -1;
+        try {
+            return document(action);
+        } finally {
+            in = null;
+            dictionary = null;
+            ingredientNames.clear();
+        }
+    }
+
+    private int document(Consumer<Recipe> action) throws IOException {
+        expect('{');
+        boolean sawRecipes = false;
+        int count = 0;
+        if (!consume('}')) {
+            do {
+                String key = string();
+                expect(':');
+                if (key.equals("recipes")) {
+                    if (peek() != '[') {
+                        throw error("\"recipes\" must be an array");
+                    }
+                    count = recipes(action);
+                    sawRecipes = true;
+                } else {
+                    skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        if (!sawRecipes) {
+            throw error("missing \"recipes\"");
+        }
+        if (peek() != -1) {
+            throw error("unexpected content after the end of the document");
+        }
+        return count;
+    }
+
+    private int recipes(Consumer<Recipe> action) throws IOException {
+        expect('[');
+        int count = 0;
+        if (!consume(']')) {
+            do {
+                recipeIndex = count;
+                action.accept(recipe());
+                count++;
+            } while (consume(','));
+            expect(']');
+        }
+        recipeIndex = -1;
+        return count;
+    }
+
+    private Recipe recipe() throws IOException {
+        if (peek() != '{') {
+            throw error("recipe must be an object");
+        }
+        expect('{');
+        String name = null;
+        long servings = 0;
+        boolean sawServings = false;
+        boolean sawIngredients = false;
+        ingredientNames.clear();
+
+        if (!consume('}')) {
+            do {
+                String key = string();
+                expect(':');
+                switch (key) {
+                    case "name":
+                        name = requiredString("name", true);
+                        break;
+                    case "servings":
+                        servings = positiveInteger("servings");
+                        sawServings = true;
+                        break;
+                    case "ingredients":
+                        ingredients();
+                        sawIngredients = true;
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            } while (consume(','));
+            expect('}');
+        }
+
+        if (name == null) {
+            throw error("missing \"name\"");
+        }
+        if (!sawServings) {
+            throw error("missing \"servings\"");
+        }
+        if (!sawIngredients) {
+            throw error("missing \"ingredients\"");
+        }
+
+        Recipe recipe = new Recipe(name, (int) servings, dictionary);
+        for (int i = 0; i < ingredientNames.size(); i++) {
+            recipe.addIngredient(ingredientNames.get(i), ingredientAmounts[i]);
+        }
+        return recipe;
+    }
+
+    private void ingredients() throws IOException {
+        if (peek() != '[') {
+            throw error("\"ingredients\" must be an array");
+        }
+        expect('[');
+        // Duplicate "ingredients" keys: the last one wins.
+        ingredientNames.clear();
+        if (consume(']')) {
+            return;
+        }
+        do {
+            ingredient(ingredientNames.size());
+        } while (consume(','));
+        expect(']');
+    }
+
+    private void ingredient(int index) throws IOException {
+        if (peek() != '{') {
+            throw error("ingredient " + index + " must be an object");
+        }
+        expect('{');
+        String name = null;
+        double amount = 0;
+        boolean sawAmount = false;
+        if (!consume('}')) {
+            do {
+                String key = string();
+                expect(':');
+                switch (key) {
+                    case "name":
+                        name = requiredString("ingredient " + index + " \"name\"", false);
+                        break;
+                    case "amount":
+                        amount = positiveNumber("ingredient " + index + " \"amount\"");
+                        sawAmount = true;
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        if (name == null) {
+            throw error("ingredient " + index + ": missing \"name\"");
+        }
+        if (!sawAmount) {
+            throw error("ingredient " + index + ": missing \"amount\"");
+        }
+
+        if (index == ingredientAmounts.length) {
+            ingredientAmounts = Arrays.copyOf(ingredientAmounts, index * 2);
+        }
+        ingredientNames.add(name);
+        ingredientAmounts[index] = amount;
+    }
+
+    // Values with validation
+
+    // Recipe names are checked with isBlank, as Recipe does; ingredient names
+    // with trim, as Recipe.addIngredient does.
+    private String requiredString(String field, boolean recipeName) throws IOException {
+        if (peek() != '"') {
+            throw error("invalid " + quoted(field) + " (must be a string)");
+        }
+        String s = string();
+        if (recipeName ? s.isBlank() : s.trim().isEmpty()) {
+            throw error("invalid " + quoted(field) + " (must be non-blank)");
+        }
+        return s;
+    }
+
+    private long positiveInteger(String field) throws IOException {
+        double value = positiveNumber(field);
+        if (value != Math.rint(value) || value > Integer.MAX_VALUE) {
+            throw error("invalid " + quoted(field) + " (must be a whole number)");
+        }
+        return (long) value;
+    }
+
+    private double positiveNumber(String field) throws IOException {
+        int c = peek();
+        if (c != '-' && (c < '0' || c > '9')) {
+            throw error("invalid " + quoted(field) + " (must be a number)");
+        }
+        double value = number();
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw error("invalid " + quoted(field) + " (must be greater than 0)");
+        }
+        return value;
+    }
+
+    private static String quoted(String field) {
+        return field.indexOf('"') >= 0 ? field : "\"" + field + "\"";
+    }
+
+    // Tokens
+
+    private String string() throws IOException {
+        expect('"');
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("unterminated string");
+            }
+            if (c == '"') {
+                return token.toString();
+            }
+            if (c < 0x20) {
+                throw error("unescaped control character in string");
+            }
+            if (c != '\\') {
+                token.append((char) c);
+                continue;
+            }
+            int e = read();
+            switch (e) {
+                case '"': token.append('"'); break;
+                case '\\': token.append('\\'); break;
+                case '/': token.append('/'); break;
+                case 'b': token.append('\b'); break;
+                case 'f': token.append('\f'); break;
+                case 'n': token.append('\n'); break;
+                case 'r': token.append('\r'); break;
+                case 't': token.append('\t'); break;
+                case 'u': token.append(hexChar()); break;
+                default: throw error("invalid escape sequence in string");
+            }
+        }
+    }
+
+    private char hexChar() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw error("invalid \\u escape in string");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    private double number() throws IOException {
+        skipWhitespace();
+        token.setLength(0);
+        if (peekRaw() == '-') {
+            token.append((char) read());
+        }
+        int intDigits = digits();
+        if (intDigits == 0 || (intDigits > 1 && token.charAt(token.length() - intDigits) == '0')) {
+            throw error("malformed number");
+        }
+        if (peekRaw() == '.') {
+            token.append((char) read());
+            if (digits() == 0) {
+                throw error("malformed number");
+            }
+        }
+        if (peekRaw() == 'e' || peekRaw() == 'E') {
+            token.append((char) read());
+            if (peekRaw() == '+' || peekRaw() == '-') {
+                token.append((char) read());
+            }
+            if (digits() == 0) {
+                throw error("malformed number");
+            }
+        }
+        return Double.parseDouble(token.toString());
+    }
+
+    private int digits() throws IOException {
+        int count = 0;
+        while (peekRaw() >= '0' && peekRaw() <= '9') {
+            token.append((char) read());
+            count++;
+        }
+        return count;
+    }
+
+    // Skips one value of any kind. Open containers are tracked in a stack of
+    // '{' and '[' rather than by recursion, so deep nesting cannot overflow.
+    private void skipValue() throws IOException {
+        StringBuilder open = new StringBuilder();
+        do {
+            int c = peek();
+            if (c == '{') {
+                expect('{');
+                if (!consume('}')) {
+                    open.append('{');
+                    string();
+                    expect(':');
+                    continue;
+                }
+            } else if (c == '[') {
+                expect('[');
+                if (!consume(']')) {
+                    open.append('[');
+                    continue;
+                }
+            } else {
+                skipScalar(c);
+            }
+            // A value ended: move to the next element, or close finished containers.
+            while (open.length() > 0) {
+                char container = open.charAt(open.length() - 1);
+                if (consume(',')) {
+                    if (container == '{') {
+                        string();
+                        expect(':');
+                    }
+                    break;
+                }
+                expect(container == '{' ? '}' : ']');
+                open.setLength(open.length() - 1);
+            }
+        } while (open.length() > 0);
+    }
+
+    private void skipScalar(int c) throws IOException {
+        switch (c) {
+            case '"':
+                string();
+                break;
+            case 't':
+                literal("true");
+                break;
+            case 'f':
+                literal("false");
+                break;
+            case 'n':
+                literal("null");
+                break;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    number();
+                } else {
+                    throw error(c == -1 ? "unexpected end of input" : "unexpected character '" + (char) c + "'");
+                }
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        skipWhitespace();
+        for (int i = 0; i < word.length(); i++) {
+            if (read() != word.charAt(i)) {
+                throw error("invalid literal, expected " + word);
+            }
+        }
+    }
+
+    // Character stream
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            String found = c == -1 ? "end of input" : "'" + (char) c + "'";
+            throw error("expected '" + expected + "' but found " + found);
+        }
+        read();
+    }
+
+    private boolean consume(char expected) throws IOException {
+        if (peek() == expected) {
+            read();
+            return true;
+        }
+        return false;
+    }
+
+    // Returns the next non-whitespace character without consuming it, or -1 at end of input.
+    private int peek() throws IOException {
+        skipWhitespace();
+        return peekRaw();
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peekRaw()) == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            read();
+        }
+    }
+
+    private int peekRaw() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos];
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        char c = buf[pos++];
+        if (c == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private RecipeFormatException error(String reason) {
+        String where = "line " + line + ", column " + column;
+        if (recipeIndex >= 0) {
+            return new RecipeFormatException("Recipe " + recipeIndex + ": " + reason + " (" + where + ")", recipeIndex);
+        }
+        return new RecipeFormatException(reason + " (" + where + ")");
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link RecipeBook} as JSON (see DATA_MODEL.md, Persistence Model).
+ *
+ * <p>Output is streamed: recipes are encoded one at a time into a reusable
+ * direct buffer that is flushed to the channel whenever it fills up, so the
+ * memory used does not depend on the size of the book. Recipe and ingredient
+ * order are preserved, and amounts are written unformatted with enough
+ * digits to read back the exact same {@code double}.
+ *
+ * <p>A writer owns its buffer and is not thread-safe; use one writer per thread.
+ */
+public class RecipeJsonWriter {
+    /** Default size of the output buffer in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // Large enough for any single token written without a capacity check loop.
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final ByteBuffer buffer;
+    private WritableByteChannel channel;
+
+    /**
+     * Creates a writer with the default buffer size.
+     */
+    public RecipeJsonWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer with the given buffer size.
+     *
+     * @param bufferSize the output buffer size in bytes; at least 64
+     * @throws IllegalArgumentException if bufferSize is too small
+     */
+    public RecipeJsonWriter(int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("bufferSize must be at least " + MIN_BUFFER_SIZE);
+        }
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Saves a recipe book to a file.
+     *
+     * <p>The JSON is written to a temporary file next to {@code path}, which
+     * then replaces {@code path}. If writing fails, an existing file at
+     * {@code path} is left untouched.
+     *
+     * @param book the book to save
+     * @param path the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(RecipeBook book, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(book, out);
+                out.force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a recipe book as a JSON document to a channel.
+     *
+     * <p>The channel is not closed.
+     *
+     * @param book the book to write
+     * @param out the destination channel
+     * @throws IOException if writing to the channel fails
+     */
+    public void write(RecipeBook book, WritableByteChannel out) throws IOException {
+        begin(out);
+        try {
+            ascii("{\n  \"recipes\": [");
+            boolean first = true;
+            for (Recipe recipe : book.recipesView()) {
+                ascii(first ? "\n    " : ",\n    ");
+                recipe(recipe, "    ");
+                first = false;
+            }
+            ascii(first ? "]\n}\n" : "\n  ]\n}\n");
+            flush();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Writes a single recipe as a JSON object to a channel.
+     *
+     * <p>The channel is not closed.
+     *
+     * @param recipe the recipe to write
+     * @param out the destination channel
+     * @throws IOException if writing to the channel fails
+     */
+    public void write(Recipe recipe, WritableByteChannel out) throws IOException {
+        begin(out);
+        try {
+            recipe(recipe, "");
+            ascii("\n");
+            flush();
+        } finally {
+            end();
+        }
+    }
+
+    private void begin(WritableByteChannel out) {
+        buffer.clear();
+        channel = out;
+    }
+
+    private void end() {
+        channel = null;
+        buffer.clear();
+    }
+
+    private void recipe(Recipe recipe, String indent) throws IOException {
+        ascii("{\n");
+        ascii(indent);
+        ascii("  \"name\": ");
+        string(recipe.getName());
+        ascii(",\n");
+        ascii(indent);
+        ascii("  \"servings\": ");
+        number(recipe.getServings());
+        ascii(",\n");
+        ascii(indent);
+        ascii("  \"ingredients\": [");
+        int count = recipe.totalIngredientCount();
+        for (int i = 0; i < count; i++) {
+            ascii(i == 0 ? "\n" : ",\n");
+            ascii(indent);
+            ascii("    { \"name\": ");
+            string(recipe.getIngredientName(i));
+            ascii(", \"amount\": ");
+            number(recipe.getIngredientAmount(i));
+            ascii(" }");
+        }
+        if (count > 0) {
+            ascii("\n");
+            ascii(indent);
+            ascii("  ");
+        }
+        ascii("]\n");
+        ascii(indent);
+        ascii("}");
+    }
+
+    // Writes a string that is known to be plain ASCII without escapes.
+    private void ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            ensure(1);
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    private void number(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    private void number(double value) throws IOException {
+        if (!Double.isFinite(value)) {
+            throw new IOException("Cannot write non-finite amount " + value);
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            number((long) value);
+            return;
+        }
+        // Double.toString produces the digits needed to round-trip the value exactly.
+        ascii(Double.toString(value));
+    }
+
+    private void string(String s) throws IOException {
+        ensure(1);
+        buffer.put((byte) '"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            ensure(6);
+            if (c == '"' || c == '\\') {
+                buffer.put((byte) '\\').put((byte) c);
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                       && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | (cp >> 18)));
+                buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // A lone surrogate cannot be encoded as UTF-8; keep it as a JSON escape.
+                unicodeEscape(c);
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        ensure(1);
+        buffer.put((byte) '"');
+    }
+
+    private void escapeControl(char c) {
+        switch (c) {
+            case '\n': buffer.put((byte) '\\').put((byte) 'n'); break;
+            case '\r': buffer.put((byte) '\\').put((byte) 'r'); break;
+            case '\t': buffer.put((byte) '\\').put((byte) 't'); break;
+            case '\b': buffer.put((byte) '\\').put((byte) 'b'); break;
+            case '\f': buffer.put((byte) '\\').put((byte) 'f'); break;
+            default: unicodeEscape(c); break;
+        }
+    }
+
+    private void unicodeEscape(char c) {
+        buffer.put((byte) '\\').put((byte) 'u');
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            buffer.put((byte) Character.forDigit((c >> shift) & 0xF, 16));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,318 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records call counts, latency histograms and collection sizes for the
+ * main recipe operations.
+ *
+ * <p>Recording is off by default. Turn it on with {@link #setEnabled(boolean)},
+ * over JMX, or by starting the JVM with {@code -Drecipes.metrics=true}. While
+ * it is off, an instrumented call costs one volatile read. Recording is
+ * lock-free and may happen from any thread.
+ *
+ * <p>Results are available as a {@link #snapshot()} or, after
+ * {@link #registerMBean()}, as the MBean {@value #OBJECT_NAME}.
+ */
+public final class RecipeMetrics {
+    /** JMX name under which {@link #registerMBean()} registers the metrics. */
+    public static final String OBJECT_NAME = "recipes:type=RecipeMetrics";
+
+    // Returned by start() when recording is off; record() then does nothing.
+    static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * The instrumented operations.
+     */
+    public enum Operation {
+        /** {@link RecipeBook#addRecipe(Recipe)}; size is the book size afterwards. */
+        ADD_RECIPE,
+        /** {@link RecipeBook#addAll(java.util.Collection)}; size is the book size afterwards. */
+        ADD_ALL,
+        /** {@link RecipeBook#removeRecipe(String)}; size is the book size afterwards. */
+        REMOVE_RECIPE,
+        /** {@link RecipeBook#searchByName(String)}; size is the number of results. */
+        SEARCH_BY_NAME,
+        /** {@link RecipeBook#searchByIngredient(String)}; size is the number of results. */
+        SEARCH_BY_INGREDIENT,
+        /** {@link RecipeBook#search(String)}; size is the number of results. */
+        SEARCH,
+        /** {@link RecipeBook#searchFuzzy(String, int)}; size is the number of results. */
+        SEARCH_FUZZY,
+        /** {@link RecipeBook#filter(java.util.function.Predicate)}; size is the number of results. */
+        FILTER,
+        /** {@link RecipeSorter#sortByName(java.util.List, boolean)}; size is the input size. */
+        SORT_BY_NAME,
+        /** {@link RecipeSorter#topByName(java.util.List, int, boolean)}; size is the input size. */
+        TOP_BY_NAME,
+        /** {@link Recipe#scaleToServings(int)}; size is the ingredient count. */
+        SCALE_TO_SERVINGS
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[OPERATIONS.length];
+    private static final long[] LAST_SIZES = new long[OPERATIONS.length];
+    private static volatile boolean enabled = Boolean.getBoolean("recipes.metrics");
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private RecipeMetrics() {
+    }
+
+    /**
+     * Returns whether operations are currently being recorded.
+     *
+     * @return true if recording is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Values recorded so far are kept.
+     *
+     * @param on true to record operations
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public static void reset() {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i].reset();
+            LAST_SIZES[i] = 0;
+        }
+    }
+
+    /**
+     * Returns the statistics of every operation.
+     *
+     * @return a new list with one entry per {@link Operation}, in declaration order
+     */
+    public static List<OperationStats> snapshot() {
+        List<OperationStats> stats = new ArrayList<>(OPERATIONS.length);
+        for (Operation op : OPERATIONS) {
+            stats.add(snapshot(op));
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the statistics of one operation.
+     *
+     * @param operation the operation
+     * @return the current statistics
+     */
+    public static OperationStats snapshot(Operation operation) {
+        LatencyHistogram h = HISTOGRAMS[operation.ordinal()];
+        return new OperationStats(operation, h.count(), h.totalNanos(), h.maxNanos(), h.bucketCounts(),
+                                  LAST_SIZES[operation.ordinal()]);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, if not already registered.
+     *
+     * @throws IllegalStateException if registration fails
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return a start time to pass to {@link #record}, or {@link #DISABLED}
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Finishes timing an operation started with {@link #start()}.
+     *
+     * @param operation the operation
+     * @param start the value returned by {@link #start()}
+     * @param size the collection size to report for this call
+     */
+    static void record(Operation operation, long start, int size) {
+        if (start == DISABLED) {
+            return;
+        }
+        HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - start);
+        // A plain write: the latest size is a gauge, and an occasionally stale value is fine.
+        LAST_SIZES[operation.ordinal()] = size;
+    }
+
+    /**
+     * Statistics of one operation at the time of a {@link RecipeMetrics#snapshot()}.
+     */
+    public static final class OperationStats {
+        private final Operation operation;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets;
+        private final long lastSize;
+
+        private OperationStats(Operation operation, long count, long totalNanos, long maxNanos,
+                               long[] buckets, long lastSize) {
+            this.operation = operation;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+            this.lastSize = lastSize;
+        }
+
+        /**
+         * Returns the operation these statistics describe.
+         *
+         * @return the operation
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the number of recorded calls.
+         *
+         * @return the call count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the total time spent in recorded calls.
+         *
+         * @return the total latency in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Returns the mean latency.
+         *
+         * @return the mean latency in nanoseconds, or 0 if there were no calls
+         */
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Returns the highest recorded latency.
+         *
+         * @return the maximum latency in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns the latency at a percentile, accurate to about 6%.
+         *
+         * @param percentile a value from 0 to 100
+         * @return the latency in nanoseconds, or 0 if there were no calls
+         * @throws IllegalArgumentException if percentile is out of range
+         */
+        public long getPercentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            return Math.min(LatencyHistogram.valueAtPercentile(buckets, percentile), maxNanos);
+        }
+
+        /**
+         * Returns the collection size reported by the latest call.
+         *
+         * @return the size; see {@link Operation} for what it measures
+         */
+        public long getLastSize() {
+            return lastSize;
+        }
+
+        @Override
+        public String toString() {
+            return operation + ": count=" + count + ", mean=" + getMeanNanos() + "ns, p50="
+                + getPercentileNanos(50) + "ns, p99=" + getPercentileNanos(99) + "ns, max=" + maxNanos
+                + "ns, size=" + lastSize;
+        }
+    }
+
+    private static final class Bean implements RecipeMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return RecipeMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            RecipeMetrics.setEnabled(on);
+        }
+
+        @Override
+        public Map<String, Long> getCounts() {
+            return collect(OperationStats::getCount);
+        }
+
+        @Override
+        public Map<String, Long> getMeanLatencies() {
+            return collect(OperationStats::getMeanNanos);
+        }
+
+        @Override
+        public Map<String, Long> getP50Latencies() {
+            return collect(s -> s.getPercentileNanos(50));
+        }
+
+        @Override
+        public Map<String, Long> getP99Latencies() {
+            return collect(s -> s.getPercentileNanos(99));
+        }
+
+        @Override
+        public Map<String, Long> getMaxLatencies() {
+            return collect(OperationStats::getMaxNanos);
+        }
+
+        @Override
+        public Map<String, Long> getLastSizes() {
+            return collect(OperationStats::getLastSize);
+        }
+
+        @Override
+        public void reset() {
+            RecipeMetrics.reset();
+        }
+
+        private static Map<String, Long> collect(ToLongFunction<OperationStats> value) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (OperationStats stats : snapshot()) {
+                values.put(stats.getOperation().name(), value.applyAsLong(stats));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Map;
+
+/**
+ * JMX view of {@link RecipeMetrics}.
+ *
+ * <p>Maps are keyed by operation name (for example {@code SEARCH_BY_NAME}).
+ * Latencies are in nanoseconds.
+ */
+public interface RecipeMetricsMXBean {
+    /**
+     * Returns whether operations are currently being recorded.
+     *
+     * @return true if recording is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns recording on or off.
+     *
+     * @param enabled true to record operations
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the number of calls per operation.
+     *
+     * @return counts by operation
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * Returns the mean latency per operation.
+     *
+     * @return mean latencies by operation
+     */
+    Map<String, Long> getMeanLatencies();
+
+    /**
+     * Returns the median latency per operation.
+     *
+     * @return 50th percentile latencies by operation
+     */
+    Map<String, Long> getP50Latencies();
+
+    /**
+     * Returns the 99th percentile latency per operation.
+     *
+     * @return 99th percentile latencies by operation
+     */
+    Map<String, Long> getP99Latencies();
+
+    /**
+     * Returns the highest latency seen per operation.
+     *
+     * @return maximum latencies by operation
+     */
+    Map<String, Long> getMaxLatencies();
+
+    /**
+     * Returns the collection size seen by the latest call of each operation.
+     *
+     * @return sizes by operation
+     */
+    Map<String, Long> getLastSizes();
+
+    /**
+     * Clears all recorded values.
+     */
+    void reset();
+}
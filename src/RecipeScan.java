@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * A full scan of a recipe array against a predicate, used by {@link RecipeBook}.
+ *
+ * <p>Arrays at least as long as the caller's threshold, and longer than
+ * one chunk, are split into fixed-size chunks that fork/join tasks test on the common pool. Every
+ * chunk collects its matches into its own slot, and the slots are joined
+ * in chunk order at the end, so the result keeps the order of the array
+ * and each match is copied only once.
+ */
+class RecipeScan {
+    // Number of recipes each fork/join leaf task tests.
+    static final int CHUNK_SIZE = 1024;
+
+    private RecipeScan() {
+    }
+
+    /**
+     * Returns the recipes that satisfy a predicate, in array order.
+     *
+     * @param recipes the recipes to test
+     * @param predicate the test; may be called from several threads at once
+     * @param parallelThreshold the smallest array length scanned in parallel;
+     *        arrays of at most {@link #CHUNK_SIZE} are always scanned inline
+     * @return a new list of matching recipes
+     */
+    static List<Recipe> filter(Recipe[] recipes, Predicate<? super Recipe> predicate, int parallelThreshold) {
+        if (recipes.length < parallelThreshold || recipes.length <= CHUNK_SIZE) {
+            List<Recipe> matches = new ArrayList<>();
+            collect(recipes, 0, recipes.length, predicate, matches);
+            return matches;
+        }
+
+        int chunkCount = (recipes.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<List<Recipe>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(null);
+        }
+        ForkJoinPool.commonPool().invoke(new ScanTask(recipes, predicate, chunks, 0, chunkCount));
+
+        int total = 0;
+        for (List<Recipe> chunk : chunks) {
+            total += chunk.size();
+        }
+        List<Recipe> matches = new ArrayList<>(total);
+        for (List<Recipe> chunk : chunks) {
+            matches.addAll(chunk);
+        }
+        return matches;
+    }
+
+    private static void collect(Recipe[] recipes, int from, int to, Predicate<? super Recipe> predicate,
+                                List<Recipe> matches) {
+        for (int i = from; i < to; i++) {
+            if (predicate.test(recipes[i])) {
+                matches.add(recipes[i]);
+            }
+        }
+    }
+
+    private static final class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Recipe[] recipes;
+        private final Predicate<? super Recipe> predicate;
+        private final List<List<Recipe>> chunks;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ScanTask(Recipe[] recipes, Predicate<? super Recipe> predicate, List<List<Recipe>> chunks,
+                 int fromChunk, int toChunk) {
+            this.recipes = recipes;
+            this.predicate = predicate;
+            this.chunks = chunks;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                int from = fromChunk * CHUNK_SIZE;
+                int to = Math.min(from + CHUNK_SIZE, recipes.length);
+                List<Recipe> matches = new ArrayList<>();
+                collect(recipes, from, to, predicate, matches);
+                // Each leaf writes its own slot; invoke() publishes the writes to the caller.
+                chunks.set(fromChunk, matches);
+                return;
+            }
+            int mid = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ScanTask(recipes, predicate, chunks, fromChunk, mid),
+                      new ScanTask(recipes, predicate, chunks, mid, toChunk));
+        }
+    }
+}
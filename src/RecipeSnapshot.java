@@ -0,0 +1,459 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only recipe book stored in a compact binary file and opened by
+ * memory-mapping it.
+ *
+ * <p>Opening a snapshot only reads the header. Recipe data is accessed in
+ * place through the mapping, so the operating system loads just the pages
+ * that are touched, and amounts are read straight from the file without
+ * creating objects. Names are decoded when requested.
+ *
+ * <p>File layout, little-endian:
+ * <pre>
+ * header          48 bytes: magic, version, recipe, ingredient and string
+ *                 counts, then the offset of each section and the length
+ *                 of the string data
+ * recipe table    per recipe: name string id, servings, first ingredient,
+ *                 ingredient count (4 ints)
+ * name ids        per ingredient: string id of its name (int)
+ * amounts         per ingredient: amount (double, 8-byte aligned)
+ * string offsets  stringCount + 1 ints; string i is bytes [off[i], off[i+1])
+ * string data     UTF-8 bytes of every distinct name
+ * </pre>
+ *
+ * <p>Ingredients of one recipe are contiguous, in recipe order. Identical
+ * names are stored once. A file must be smaller than 2 GB. Amounts are
+ * stored exactly as returned by {@link Recipe#getIngredientAmount(int)}.
+ *
+ * <p>A snapshot is immutable and may be read from any thread.
+ */
+public final class RecipeSnapshot {
+    private static final int MAGIC = 0x53504352; // "RCPS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int RECIPE_ENTRY_SIZE = 16;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer data;
+    private final int recipeCount;
+    private final int ingredientCount;
+    private final int stringCount;
+    private final int recipeTableOffset;
+    private final int nameIdsOffset;
+    private final int amountsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+
+    private RecipeSnapshot(ByteBuffer data) throws RecipeFormatException {
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new RecipeFormatException("Not a recipe snapshot");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new RecipeFormatException("Unsupported snapshot version " + data.getInt(4));
+        }
+        recipeCount = data.getInt(8);
+        ingredientCount = data.getInt(12);
+        stringCount = data.getInt(16);
+        recipeTableOffset = data.getInt(20);
+        nameIdsOffset = data.getInt(24);
+        amountsOffset = data.getInt(28);
+        stringOffsetsOffset = data.getInt(32);
+        stringDataOffset = data.getInt(36);
+        int stringDataLength = data.getInt(40);
+
+        long[] expected;
+        try {
+            expected = layout(recipeCount, ingredientCount, stringCount, stringDataLength);
+        } catch (IOException e) {
+            throw new RecipeFormatException("Corrupt snapshot header");
+        }
+        if (expected[0] != recipeTableOffset || expected[1] != nameIdsOffset
+                || expected[2] != amountsOffset || expected[3] != stringOffsetsOffset
+                || expected[4] != stringDataOffset || expected[5] != data.capacity()) {
+            throw new RecipeFormatException("Corrupt snapshot header");
+        }
+    }
+
+    /**
+     * Opens a snapshot file by memory-mapping it.
+     *
+     * @param path the snapshot file
+     * @return the opened snapshot
+     * @throws RecipeFormatException if the file is not a valid snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static RecipeSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new RecipeFormatException("Snapshot larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RecipeSnapshot(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Saves a recipe book as a snapshot file.
+     *
+     * <p>The snapshot is written to a temporary file next to {@code path},
+     * which then replaces {@code path}. If writing fails, an existing file at
+     * {@code path} is left untouched.
+     *
+     * @param book the book to save
+     * @param path the destination file
+     * @throws IOException if the file cannot be written or the book is too large
+     */
+    public static void write(RecipeBook book, Path path) throws IOException {
+        write(columnsOf(book), path);
+    }
+
+    /**
+     * Saves recipe views as a snapshot file, through a temporary file that
+     * then replaces {@code path}.
+     *
+     * @param recipes the recipes to save, in order
+     * @param path the destination file
+     * @throws IOException if the file cannot be written or the recipes are too many
+     */
+    static void write(List<Recipe.Columns> recipes, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(recipes, out);
+                out.force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a recipe book in snapshot format to a channel.
+     *
+     * <p>The channel is not closed.
+     *
+     * @param book the book to write
+     * @param out the destination channel
+     * @throws IOException if writing fails or the book is too large
+     */
+    public static void write(RecipeBook book, WritableByteChannel out) throws IOException {
+        write(columnsOf(book), out);
+    }
+
+    private static List<Recipe.Columns> columnsOf(RecipeBook book) {
+        List<Recipe.Columns> recipes = new ArrayList<>(book.size());
+        for (Recipe recipe : book.recipesView()) {
+            recipes.add(recipe.columns());
+        }
+        return recipes;
+    }
+
+    private static void write(List<Recipe.Columns> recipes, WritableByteChannel out) throws IOException {
+        // Pass 1: assign string ids and count ingredients.
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        long stringDataLength = 0;
+        long ingredients = 0;
+        for (Recipe.Columns recipe : recipes) {
+            stringDataLength += intern(recipe.getName(), stringIds, strings);
+            for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+                stringDataLength += intern(recipe.getIngredientName(i), stringIds, strings);
+            }
+            ingredients += recipe.totalIngredientCount();
+        }
+        if (ingredients > Integer.MAX_VALUE || stringDataLength > Integer.MAX_VALUE) {
+            throw new IOException("Recipe book too large for a snapshot");
+        }
+        long[] offsets = layout(recipes.size(), (int) ingredients, strings.size(), (int) stringDataLength);
+
+        ByteBuffer buf = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(recipes.size()).putInt((int) ingredients).putInt(strings.size());
+        for (int i = 0; i < 5; i++) {
+            buf.putInt((int) offsets[i]);
+        }
+        buf.putInt((int) stringDataLength).putInt(0);
+
+        int first = 0;
+        for (Recipe.Columns recipe : recipes) {
+            ensure(buf, RECIPE_ENTRY_SIZE, out);
+            buf.putInt(stringIds.get(recipe.getName())).putInt(recipe.getServings())
+               .putInt(first).putInt(recipe.totalIngredientCount());
+            first += recipe.totalIngredientCount();
+        }
+        for (Recipe.Columns recipe : recipes) {
+            for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+                ensure(buf, 4, out);
+                buf.putInt(stringIds.get(recipe.getIngredientName(i)));
+            }
+        }
+        long padding = offsets[2] - (offsets[1] + 4 * ingredients);
+        for (long i = 0; i < padding; i++) {
+            ensure(buf, 1, out);
+            buf.put((byte) 0);
+        }
+        for (Recipe.Columns recipe : recipes) {
+            for (int i = 0; i < recipe.totalIngredientCount(); i++) {
+                ensure(buf, 8, out);
+                buf.putDouble(recipe.getIngredientAmount(i));
+            }
+        }
+        int offset = 0;
+        for (byte[] s : strings) {
+            ensure(buf, 4, out);
+            buf.putInt(offset);
+            offset += s.length;
+        }
+        ensure(buf, 4, out);
+        buf.putInt(offset);
+        for (byte[] s : strings) {
+            int written = 0;
+            while (written < s.length) {
+                ensure(buf, 1, out);
+                int n = Math.min(buf.remaining(), s.length - written);
+                buf.put(s, written, n);
+                written += n;
+            }
+        }
+        flush(buf, out);
+    }
+
+    /**
+     * Returns the number of recipes in this snapshot.
+     *
+     * @return the number of recipes
+     */
+    public int size() {
+        return recipeCount;
+    }
+
+    /**
+     * Returns the total number of ingredient entries across all recipes.
+     *
+     * @return the number of ingredients
+     */
+    public int totalIngredientCount() {
+        return ingredientCount;
+    }
+
+    /**
+     * Returns a view of the recipe at the given position.
+     *
+     * @param index the recipe position, in insertion order
+     * @return a read-only view backed by the snapshot
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public Entry get(int index) {
+        if (index < 0 || index >= recipeCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + recipeCount);
+        }
+        return new Entry(index);
+    }
+
+    /**
+     * Returns views of all recipes in insertion order.
+     *
+     * @return an unmodifiable list backed by the snapshot
+     */
+    public List<Entry> entries() {
+        return new EntryList();
+    }
+
+    /**
+     * Copies every recipe into a new mutable recipe book.
+     *
+     * @return a new book with the same recipes, in the same order
+     */
+    public RecipeBook toRecipeBook() {
+        RecipeBook book = new RecipeBook(recipeCount, false);
+        List<Recipe> copies = new ArrayList<>(recipeCount);
+        for (int i = 0; i < recipeCount; i++) {
+            copies.add(new Entry(i).toRecipe(book.ingredientDictionary()));
+        }
+        book.addAll(copies);
+        return book;
+    }
+
+    /**
+     * A read-only view of one recipe in a snapshot.
+     *
+     * <p>Accessors mirror those of {@link Recipe} and read directly from
+     * the mapped file.
+     */
+    public final class Entry {
+        private final int entryOffset;
+
+        private Entry(int index) {
+            this.entryOffset = recipeTableOffset + index * RECIPE_ENTRY_SIZE;
+        }
+
+        /**
+         * Returns the name of this recipe.
+         *
+         * @return the recipe name
+         */
+        public String getName() {
+            return string(data.getInt(entryOffset));
+        }
+
+        /**
+         * Returns the number of servings.
+         *
+         * @return the servings count
+         */
+        public int getServings() {
+            return data.getInt(entryOffset + 4);
+        }
+
+        /**
+         * Returns the number of ingredient entries in this recipe.
+         *
+         * @return the number of ingredients
+         */
+        public int totalIngredientCount() {
+            return data.getInt(entryOffset + 12);
+        }
+
+        /**
+         * Returns the name of the ingredient at the given position.
+         *
+         * @param index the ingredient position, in insertion order
+         * @return the ingredient name
+         * @throws IndexOutOfBoundsException if {@code index} is out of range
+         */
+        public String getIngredientName(int index) {
+            return string(data.getInt(nameIdsOffset + 4 * ingredient(index)));
+        }
+
+        /**
+         * Returns the amount of the ingredient at the given position.
+         *
+         * @param index the ingredient position, in insertion order
+         * @return the ingredient amount
+         * @throws IndexOutOfBoundsException if {@code index} is out of range
+         */
+        public double getIngredientAmount(int index) {
+            return data.getDouble(amountsOffset + 8 * ingredient(index));
+        }
+
+        /**
+         * Copies this recipe into a new mutable {@link Recipe}.
+         *
+         * @return a new recipe with the same name, servings and ingredients
+         */
+        public Recipe toRecipe() {
+            return toRecipe(null);
+        }
+
+        private Recipe toRecipe(IngredientDictionary dictionary) {
+            Recipe recipe = new Recipe(getName(), getServings(), dictionary);
+            int count = totalIngredientCount();
+            for (int i = 0; i < count; i++) {
+                recipe.addIngredient(getIngredientName(i), getIngredientAmount(i));
+            }
+            return recipe;
+        }
+
+        // Returns the position of the index-th ingredient in the ingredient columns.
+        private int ingredient(int index) {
+            int count = totalIngredientCount();
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+            }
+            return data.getInt(entryOffset + 8) + index;
+        }
+    }
+
+    private final class EntryList extends AbstractList<Entry> implements RandomAccess {
+        @Override
+        public Entry get(int index) {
+            return RecipeSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return recipeCount;
+        }
+    }
+
+    private String string(int id) {
+        if (id < 0 || id >= stringCount) {
+            throw new IndexOutOfBoundsException("String id " + id + " out of bounds for length " + stringCount);
+        }
+        int start = data.getInt(stringOffsetsOffset + 4 * id);
+        int end = data.getInt(stringOffsetsOffset + 4 * (id + 1));
+        byte[] bytes = new byte[end - start];
+        data.get(stringDataOffset + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Returns the length of a newly added string, or 0 if it was already known.
+    private static int intern(String s, Map<String, Integer> ids, List<byte[]> strings) {
+        if (ids.containsKey(s)) {
+            return 0;
+        }
+        ids.put(s, strings.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return bytes.length;
+    }
+
+    // Returns the section offsets {recipe table, name ids, amounts, string
+    // offsets, string data, end of file} for the given counts.
+    private static long[] layout(int recipes, int ingredients, int strings, int stringDataLength)
+            throws IOException {
+        if (recipes < 0 || ingredients < 0 || strings < 0 || stringDataLength < 0) {
+            throw new IOException("Negative section size");
+        }
+        long recipeTable = HEADER_SIZE;
+        long nameIds = recipeTable + (long) RECIPE_ENTRY_SIZE * recipes;
+        long amounts = (nameIds + 4L * ingredients + 7) & ~7L;
+        long stringOffsets = amounts + 8L * ingredients;
+        long stringData = stringOffsets + 4L * (strings + 1L);
+        long end = stringData + stringDataLength;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Recipe book too large for a snapshot");
+        }
+        return new long[] {recipeTable, nameIds, amounts, stringOffsets, stringData, end};
+    }
+
+    private static void ensure(ByteBuffer buf, int bytes, WritableByteChannel out) throws IOException {
+        if (buf.remaining() < bytes) {
+            flush(buf, out);
+        }
+    }
+
+    private static void flush(ByteBuffer buf, WritableByteChannel out) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+}
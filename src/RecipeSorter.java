@@ -1,18 +1,27 @@
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Utility class for sorting recipes.
  *
  * <p>Sorting is applied only for presentation purposes and does not modify
  * the original recipe collection.
+ *
+ * <p>Each recipe's name is read and case-folded once into a {@link SortKey}
+ * before sorting, so comparisons only touch precomputed strings. Ordering is
+ * fully deterministic: names are compared ignoring case, then exactly (so
+ * "apple" and "Apple" always come out the same way), and finally by position
+ * in the input list.
  */
 public class RecipeSorter {
+    // Lists at least this long are sorted with Arrays.parallelSort.
+    static final int PARALLEL_THRESHOLD = 1 << 13;
 
     /**
-     * Returns a new list of recipes sorted by name (case-insensitive).
+     * Returns a new list of recipes sorted by name (case-insensitive, A-Z).
      *
      * <p>The original list is not modified. Sorting is case-insensitive
      * using natural alphabetical order.
@@ -21,34 +30,238 @@ public class RecipeSorter {
      * @return a new sorted list
      */
     public static List<Recipe> sortByName(List<Recipe> recipes) {
+        return sortByName(recipes, true);
+    }
+
+    /**
+     * Returns a new list of recipes sorted by name in the given direction.
+     *
+     * <p>The original list is not modified. Names are compared ignoring case;
+     * names that are equal ignoring case are ordered by their exact name and
+     * then by their position in {@code recipes}, which keeps equal recipes in
+     * input order for both directions.
+     *
+     * @param recipes the list of recipes to sort
+     * @param ascending true for A-Z, false for Z-A
+     * @return a new sorted list
+     */
+    public static List<Recipe> sortByName(List<Recipe> recipes, boolean ascending) {
         if (recipes == null) {
             return new ArrayList<>();
         }
-        
-        List<Recipe> sorted = new ArrayList<>(recipes);
-        Collections.sort(sorted, new Comparator<Recipe>() {
-            @Override
-            public int compare(Recipe r1, Recipe r2) {
-                try {
-                    String name1 = getRecipeName(r1);
-                    String name2 = getRecipeName(r2);
-                    return name1.compareToIgnoreCase(name2);
-                } catch (ReflectiveOperationException e) {
-                    return 0;
-                }
-            }
-        });
-        
+
+        long start = RecipeMetrics.start();
+        SortKey[] keys = keysFor(recipes);
+        Comparator<SortKey> order = order(ascending);
+        if (keys.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys, order);
+        } else {
+            Arrays.sort(keys, order);
+        }
+
+        List<Recipe> sorted = new ArrayList<>(keys.length);
+        for (SortKey key : keys) {
+            sorted.add(key.recipe);
+        }
+        RecipeMetrics.record(RecipeMetrics.Operation.SORT_BY_NAME, start, keys.length);
         return sorted;
     }
 
     /**
-     * Helper method to get recipe name using reflection.
-     * This is needed because Recipe's name field is private.
+     * Returns the first {@code k} recipes sorted by name (case-insensitive, A-Z).
+     *
+     * @param recipes the list of recipes to select from
+     * @param k the maximum number of recipes to return
+     * @return a new list of at most {@code k} recipes, in sorted order
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topByName(List, int, boolean)
+     */
+    public static List<Recipe> topByName(List<Recipe> recipes, int k) {
+        return topByName(recipes, k, true);
+    }
+
+    /**
+     * Returns the first {@code k} recipes in {@link #sortByName(List, boolean)} order.
+     *
+     * <p>Only the best {@code k} recipes seen so far are kept, in a bounded
+     * heap, so this takes O(n log k) time and O(k) extra space instead of
+     * sorting the whole list. A recipe that cannot enter the heap is rejected
+     * without creating a sort key.
+     *
+     * @param recipes the list of recipes to select from
+     * @param k the maximum number of recipes to return
+     * @param ascending true for A-Z, false for Z-A
+     * @return a new list of at most {@code k} recipes, in sorted order
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static List<Recipe> topByName(List<Recipe> recipes, int k, boolean ascending) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        if (recipes == null || k == 0) {
+            return new ArrayList<>();
+        }
+        if (k >= recipes.size()) {
+            return sortByName(recipes, ascending);
+        }
+
+        long start = RecipeMetrics.start();
+        Comparator<SortKey> order = order(ascending);
+        // Max-heap on the sort order: the head is the worst recipe kept.
+        PriorityQueue<SortKey> heap = new PriorityQueue<>(k, order.reversed());
+        int sequence = 0;
+        for (Recipe r : recipes) {
+            if (heap.size() < k) {
+                heap.add(new SortKey(r, sequence));
+            } else if (precedes(r, sequence, heap.peek(), ascending)) {
+                heap.poll();
+                heap.add(new SortKey(r, sequence));
+            }
+            sequence++;
+        }
+
+        SortKey[] keys = heap.toArray(new SortKey[0]);
+        Arrays.sort(keys, order);
+        List<Recipe> top = new ArrayList<>(keys.length);
+        for (SortKey key : keys) {
+            top.add(key.recipe);
+        }
+        RecipeMetrics.record(RecipeMetrics.Operation.TOP_BY_NAME, start, recipes.size());
+        return top;
+    }
+
+    /**
+     * Returns one page of recipes sorted by name (case-insensitive, A-Z).
+     *
+     * @param recipes the list of recipes to page through
+     * @param offset the number of recipes to skip
+     * @param limit the maximum number of recipes to return
+     * @return a new list of at most {@code limit} recipes
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative
+     * @see #pageByName(List, int, int, boolean)
+     */
+    public static List<Recipe> pageByName(List<Recipe> recipes, int offset, int limit) {
+        return pageByName(recipes, offset, limit, true);
+    }
+
+    /**
+     * Returns one page of recipes in {@link #sortByName(List, boolean)} order.
+     *
+     * <p>Equivalent to {@code sortByName(recipes, ascending).subList(offset,
+     * offset + limit)}, clipped to the list size. Runs in O(n log(offset + limit))
+     * time.
+     *
+     * @param recipes the list of recipes to page through
+     * @param offset the number of recipes to skip
+     * @param limit the maximum number of recipes to return
+     * @param ascending true for A-Z, false for Z-A
+     * @return a new list of at most {@code limit} recipes
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative
+     */
+    public static List<Recipe> pageByName(List<Recipe> recipes, int offset, int limit, boolean ascending) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        if (recipes == null || offset >= recipes.size()) {
+            return new ArrayList<>();
+        }
+        int end = (int) Math.min((long) offset + limit, recipes.size());
+        List<Recipe> top = topByName(recipes, end, ascending);
+        return new ArrayList<>(top.subList(offset, end));
+    }
+
+    // Whether a recipe at the given position sorts before an existing key,
+    // compared without folding the recipe's name into a new string.
+    private static boolean precedes(Recipe recipe, int sequence, SortKey key, boolean ascending) {
+        String name = recipe.getName();
+        int c = name.compareToIgnoreCase(key.name);
+        if (c == 0) {
+            c = name.compareTo(key.name);
+        }
+        if (c == 0) {
+            return sequence < key.sequence;
+        }
+        return ascending ? c < 0 : c > 0;
+    }
+
+    /**
+     * Builds the sort key of every recipe, using list positions as sequence numbers.
+     */
+    static SortKey[] keysFor(List<Recipe> recipes) {
+        SortKey[] keys = new SortKey[recipes.size()];
+        int i = 0;
+        for (Recipe r : recipes) {
+            keys[i] = new SortKey(r, i);
+            i++;
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the ordering used for sorting in the given direction.
      */
-    private static String getRecipeName(Recipe recipe) throws ReflectiveOperationException {
-        java.lang.reflect.Field nameField = Recipe.class.getDeclaredField("name");
-        nameField.setAccessible(true);
-        return (String) nameField.get(recipe);
+    static Comparator<SortKey> order(boolean ascending) {
+        return ascending ? SortKey::compareTo : (a, b) -> {
+            int c = b.compareNames(a);
+            return c != 0 ? c : Long.compare(a.sequence, b.sequence);
+        };
+    }
+
+    /**
+     * Case-folds a name the same way {@link String#compareToIgnoreCase} compares
+     * characters, so comparing folded names gives the same order.
+     *
+     * @param name the name to fold
+     * @return the folded name
+     */
+    static String foldCase(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Precomputed sort key for one recipe.
+     *
+     * <p>The natural order is ascending by folded name, then exact name, then
+     * sequence number.
+     */
+    static final class SortKey implements Comparable<SortKey> {
+        final String folded;
+        final String name;
+        final long sequence;
+        final Recipe recipe;
+
+        SortKey(Recipe recipe, long sequence) {
+            this(foldCase(recipe.getName()), recipe.getName(), sequence, recipe);
+        }
+
+        private SortKey(String folded, String name, long sequence, Recipe recipe) {
+            this.folded = folded;
+            this.name = name;
+            this.sequence = sequence;
+            this.recipe = recipe;
+        }
+
+        /**
+         * Returns a key that sorts before every recipe key whose folded name
+         * is greater than or equal to {@code foldedName}.
+         */
+        static SortKey lowerBound(String foldedName) {
+            return new SortKey(foldedName, "", Long.MIN_VALUE, null);
+        }
+
+        int compareNames(SortKey other) {
+            int c = folded.compareTo(other.folded);
+            return c != 0 ? c : name.compareTo(other.name);
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            int c = compareNames(other);
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
     }
 }
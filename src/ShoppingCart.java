@@ -0,0 +1,396 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A shopping cart: the ingredients of several recipes combined into one list.
+ *
+ * <p>Ingredients are matched by normalized name (trimmed, case-insensitive;
+ * see DATA_MODEL.md) and their amounts are summed. A name ending in a known
+ * {@link Unit}, such as {@code "butter (tbsp)"}, is matched by its base name
+ * and the unit's dimension instead, so {@code "butter (tbsp)"} and
+ * {@code "Butter (cup)"} become one item. Such an item is shown in the
+ * largest unit that occurs for it, under that entry's spelling; other items
+ * are shown under the first spelling of their name that was encountered.
+ * Items are listed in alphabetical order of their normalized names, and
+ * amounts are displayed with the same rules as {@link Recipe#toString()}.
+ *
+ * <p>Building a cart only reads the recipes; they are never modified. Large
+ * recipe sets are split across cores with fork/join, and the partial totals
+ * are merged. When all recipes share one ingredient dictionary (as recipes
+ * of one {@link RecipeBook} do), amounts are grouped by normalized id in a
+ * plain array instead of hashing names. Units are parsed once per distinct
+ * name, after amounts have been summed by name.
+ */
+public class ShoppingCart {
+    // Recipe sets at least this large are aggregated in parallel.
+    static final int PARALLEL_THRESHOLD = 2048;
+    // Number of recipes each fork/join leaf task aggregates.
+    private static final int CHUNK_SIZE = 512;
+
+    private final IngredientName[] names;
+    private final double[] amounts;
+    private final Map<String, Item> itemsByKey;
+    // Every name summed into the cart, by normalized name, so lookups of
+    // those names need not parse the query.
+    private final Map<String, IngredientName> namesByNormalized;
+
+    private ShoppingCart(Map<String, Item> itemsByKey, Map<String, IngredientName> namesByNormalized) {
+        this.itemsByKey = itemsByKey;
+        this.namesByNormalized = namesByNormalized;
+        Item[] items = itemsByKey.values().toArray(new Item[0]);
+        // Normalized names of distinct items never collide.
+        Arrays.sort(items, (a, b) -> a.name.normalized().compareTo(b.name.normalized()));
+        this.names = new IngredientName[items.length];
+        this.amounts = new double[items.length];
+        for (int i = 0; i < items.length; i++) {
+            names[i] = items[i].name;
+            amounts[i] = items[i].amount;
+        }
+    }
+
+    /**
+     * Builds a shopping cart from the ingredients of the given recipes.
+     *
+     * @param recipes the recipes to combine; null entries are not allowed
+     * @return a new cart
+     * @throws IllegalArgumentException if recipes is null or contains null
+     */
+    public static ShoppingCart of(Collection<Recipe> recipes) {
+        if (recipes == null) {
+            throw new IllegalArgumentException("Recipes must not be null");
+        }
+        Recipe[] array = recipes.toArray(new Recipe[0]);
+        for (Recipe r : array) {
+            if (r == null) {
+                throw new IllegalArgumentException("Recipes must not contain null");
+            }
+        }
+
+        IngredientDictionary dictionary = sharedDictionary(array);
+        if (dictionary != null) {
+            return aggregateById(array, dictionary);
+        }
+
+        IngredientTotals totals;
+        if (array.length >= PARALLEL_THRESHOLD) {
+            totals = ForkJoinPool.commonPool().invoke(new AggregateTask(array, 0, array.length));
+        } else {
+            totals = aggregate(array, 0, array.length);
+        }
+        Map<String, Item> items = new HashMap<>();
+        Map<String, IngredientName> names = new HashMap<>();
+        for (int slot : totals.sortedSlots()) {
+            addItem(items, names, IngredientName.parse(totals.displayName(slot)), totals.sum(slot));
+        }
+        return new ShoppingCart(items, names);
+    }
+
+    /**
+     * Returns the number of distinct (normalized) ingredients in the cart.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the combined amount for an ingredient name. If the name ends in
+     * a unit, the amount is converted to that unit, so
+     * {@code getAmount("butter (tbsp)")} counts butter bought by the cup too.
+     *
+     * @param ingredientName the name; matched after normalization
+     * @return the summed amount, or 0 if the ingredient is not in the cart
+     */
+    public double getAmount(String ingredientName) {
+        if (ingredientName == null) {
+            return 0;
+        }
+        IngredientName name = namesByNormalized.get(IngredientTotals.normalize(ingredientName));
+        if (name == null) {
+            name = IngredientName.parse(ingredientName);
+        }
+        Item item = itemsByKey.get(name.groupKey());
+        if (item == null) {
+            return 0;
+        }
+        return name.unit() == null ? item.amount : item.name.unit().convert(item.amount, name.unit());
+    }
+
+    /**
+     * Returns the cart items in display order.
+     *
+     * @return a new list of ingredients with their combined amounts
+     */
+    public List<Ingredient> getItems() {
+        List<Ingredient> items = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            items.add(Ingredient.ofParsed(names[i], amounts[i]));
+        }
+        return items;
+    }
+
+    /**
+     * Writes the cart, one {@code - <amount> <ingredient>} line per item.
+     *
+     * @param out the destination
+     * @throws IOException if the destination fails
+     */
+    public void renderTo(Appendable out) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            out.append("- ");
+            AmountFormat.appendTo(out, amounts[i]);
+            out.append(' ').append(names[i].name()).append('\n');
+        }
+    }
+
+    /**
+     * Returns the cart as text, one {@code - <amount> <ingredient>} line per item.
+     *
+     * @return the formatted cart
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            renderTo(sb);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    // Returns the dictionary used by every recipe with ingredients, or null if there are several.
+    private static IngredientDictionary sharedDictionary(Recipe[] recipes) {
+        IngredientDictionary shared = null;
+        for (Recipe r : recipes) {
+            IngredientDictionary d = r.dictionary();
+            if (d != null && d != shared) {
+                if (shared != null) {
+                    return null;
+                }
+                shared = d;
+            }
+        }
+        return shared;
+    }
+
+    private static ShoppingCart aggregateById(Recipe[] recipes, IngredientDictionary dictionary) {
+        IdTotals sums;
+        if (recipes.length >= PARALLEL_THRESHOLD) {
+            sums = ForkJoinPool.commonPool().invoke(new IdAggregateTask(recipes, 0, recipes.length, dictionary));
+        } else {
+            sums = IdTotals.of(recipes, 0, recipes.length, dictionary);
+        }
+        // Only one entry per distinct normalized name is parsed and hashed here.
+        Map<String, Item> items = new HashMap<>();
+        Map<String, IngredientName> names = new HashMap<>();
+        for (int slot = 0; slot < sums.keys.length; slot++) {
+            if (sums.keys[slot] != 0) {
+                addItem(items, names, dictionary.parsedName(sums.firstIds[slot]), sums.sums[slot]);
+            }
+        }
+        return new ShoppingCart(items, names);
+    }
+
+    // Adds a per-name total to the item for its base name and dimension.
+    private static void addItem(Map<String, Item> items, Map<String, IngredientName> names,
+                                IngredientName name, double amount) {
+        names.put(name.normalized(), name);
+        Item item = items.get(name.groupKey());
+        if (item == null) {
+            items.put(name.groupKey(), new Item(name, amount));
+        } else {
+            item.add(name, amount);
+        }
+    }
+
+    // One cart line: a summed amount in the unit of the name it is shown under.
+    private static final class Item {
+        IngredientName name;
+        double amount;
+
+        Item(IngredientName name, double amount) {
+            this.name = name;
+            this.amount = amount;
+        }
+
+        // Names of one item differ only in spelling or unit; the largest unit
+        // (then the smallest normalized name) is shown, whatever the order.
+        void add(IngredientName other, double otherAmount) {
+            Unit unit = name.unit();
+            Unit otherUnit = other.unit();
+            if (unit == null) {
+                amount += otherAmount;
+                return;
+            }
+            double size = unit.toCanonical(1);
+            double otherSize = otherUnit.toCanonical(1);
+            if (otherSize > size || (otherSize == size && other.normalized().compareTo(name.normalized()) < 0)) {
+                amount = unit.convert(amount, otherUnit) + otherAmount;
+                name = other;
+            } else {
+                amount += otherUnit.convert(otherAmount, unit);
+            }
+        }
+    }
+
+    private static IngredientTotals aggregate(Recipe[] recipes, int from, int to) {
+        IngredientTotals totals = new IngredientTotals(64);
+        for (int i = from; i < to; i++) {
+            Recipe r = recipes[i];
+            int count = r.totalIngredientCount();
+            for (int j = 0; j < count; j++) {
+                totals.add(r.getIngredientName(j), r.getIngredientAmount(j));
+            }
+        }
+        return totals;
+    }
+
+    // Sums by normalized id, with the first name id seen for each. Only ids
+    // that occur in the range get a slot, so a fork/join leaf over a few
+    // hundred recipes stays small however large the dictionary is.
+    private static final class IdTotals {
+        private int[] keys; // normalized id + 1; 0 marks an empty slot
+        private int[] firstIds;
+        private double[] sums;
+        private int size;
+
+        private IdTotals(int expected) {
+            int capacity = 16;
+            while (capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            keys = new int[capacity];
+            firstIds = new int[capacity];
+            sums = new double[capacity];
+        }
+
+        static IdTotals of(Recipe[] recipes, int from, int to, IngredientDictionary dictionary) {
+            int entries = 0;
+            for (int i = from; i < to; i++) {
+                entries += recipes[i].totalIngredientCount();
+            }
+            IdTotals totals = new IdTotals(Math.min(dictionary.normalizedCount(), entries));
+            for (int i = from; i < to; i++) {
+                Recipe r = recipes[i];
+                int count = r.totalIngredientCount();
+                for (int j = 0; j < count; j++) {
+                    int id = r.getIngredientId(j);
+                    totals.add(dictionary.normalizedId(id), id, r.getIngredientAmount(j));
+                }
+            }
+            return totals;
+        }
+
+        // Normalized ids are dense small ints, so the low bits spread them well enough.
+        private void add(int normalizedId, int firstId, double amount) {
+            int mask = keys.length - 1;
+            int slot = normalizedId & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == normalizedId + 1) {
+                    sums[slot] += amount;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = normalizedId + 1;
+            firstIds[slot] = firstId;
+            sums[slot] = amount;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldFirstIds = firstIds;
+            double[] oldSums = sums;
+            keys = new int[oldKeys.length * 2];
+            firstIds = new int[keys.length];
+            sums = new double[keys.length];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    add(oldKeys[slot] - 1, oldFirstIds[slot], oldSums[slot]);
+                }
+            }
+        }
+
+        // Adds a later range's totals; names seen first in this range are kept.
+        void addAll(IdTotals later) {
+            for (int slot = 0; slot < later.keys.length; slot++) {
+                if (later.keys[slot] != 0) {
+                    add(later.keys[slot] - 1, later.firstIds[slot], later.sums[slot]);
+                }
+            }
+        }
+    }
+
+    private static final class IdAggregateTask extends RecursiveTask<IdTotals> {
+        private static final long serialVersionUID = 1L;
+
+        private final Recipe[] recipes;
+        private final int from;
+        private final int to;
+        private final IngredientDictionary dictionary;
+
+        IdAggregateTask(Recipe[] recipes, int from, int to, IngredientDictionary dictionary) {
+            this.recipes = recipes;
+            this.from = from;
+            this.to = to;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected IdTotals compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return IdTotals.of(recipes, from, to, dictionary);
+            }
+            int mid = (from + to) >>> 1;
+            IdAggregateTask left = new IdAggregateTask(recipes, from, mid, dictionary);
+            left.fork();
+            IdTotals right = new IdAggregateTask(recipes, mid, to, dictionary).compute();
+            IdTotals merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<IngredientTotals> {
+        private static final long serialVersionUID = 1L;
+
+        private final Recipe[] recipes;
+        private final int from;
+        private final int to;
+
+        AggregateTask(Recipe[] recipes, int from, int to) {
+            this.recipes = recipes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IngredientTotals compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return aggregate(recipes, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(recipes, from, mid);
+            left.fork();
+            IngredientTotals right = new AggregateTask(recipes, mid, to).compute();
+            IngredientTotals merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from case-folded, whitespace-separated tokens to recipe ids.
+ *
+ * <p>Recipe-name tokens and ingredient-name tokens are kept in separate
+ * vocabularies so that searches can target either or both. A query token
+ * (which never contains whitespace) is a substring of a name exactly when it
+ * is a substring of one of that name's tokens. Each vocabulary numbers its
+ * tokens and keeps a {@link NameTrigramIndex} over them, with one- and
+ * two-character windows included, so the tokens containing a query token
+ * are found from postings rather than by scanning the vocabulary.
+ *
+ * <p>Recipe-name tokens are also kept in a {@link FuzzyVocabulary}, so that
+ * tokens within a small edit distance of a misspelled query token can be
+ * found without comparing the query against the whole vocabulary.
+ */
+class TokenIndex {
+    private final Vocabulary nameTokens = new Vocabulary();
+    private final Vocabulary ingredientTokens = new Vocabulary();
+    // The tokens of nameTokens; each is dropped when its posting list empties.
+    private final FuzzyVocabulary nameVocabulary = new FuzzyVocabulary();
+
+    /**
+     * Indexes the tokens of a recipe name.
+     *
+     * @param id the recipe id
+     * @param foldedName the case-folded recipe name
+     */
+    void addName(int id, String foldedName) {
+        for (String token : tokenize(foldedName)) {
+            if (nameTokens.add(token, id)) {
+                nameVocabulary.add(token);
+            }
+        }
+    }
+
+    /**
+     * Indexes the tokens of one ingredient name.
+     *
+     * @param id the recipe id
+     * @param foldedIngredient the case-folded ingredient name
+     */
+    void addIngredient(int id, String foldedIngredient) {
+        for (String token : tokenize(foldedIngredient)) {
+            ingredientTokens.add(token, id);
+        }
+    }
+
+    /**
+     * Removes every token of a recipe from the index.
+     *
+     * @param id the recipe id
+     * @param foldedName the case-folded recipe name
+     * @param foldedIngredients the case-folded ingredient names
+     */
+    void remove(int id, String foldedName, List<String> foldedIngredients) {
+        for (String token : tokenize(foldedName)) {
+            if (nameTokens.remove(token, id)) {
+                nameVocabulary.remove(token);
+            }
+        }
+        for (String ingredient : foldedIngredients) {
+            for (String token : tokenize(ingredient)) {
+                ingredientTokens.remove(token, id);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of recipes where every query token occurs as a
+     * substring of some indexed token.
+     *
+     * @param queryTokens the case-folded query tokens; must not be empty
+     * @param names whether recipe-name tokens are searched
+     * @param ingredients whether ingredient-name tokens are searched
+     * @return matching ids in ascending (insertion) order
+     */
+    int[] matchAll(List<String> queryTokens, boolean names, boolean ingredients) {
+        List<PostingList> perToken = new ArrayList<>();
+        for (String queryToken : queryTokens) {
+            List<PostingList> matches = new ArrayList<>();
+            if (names) {
+                nameTokens.collectMatches(queryToken, matches);
+            }
+            if (ingredients) {
+                ingredientTokens.collectMatches(queryToken, matches);
+            }
+            if (matches.isEmpty()) {
+                return new int[0];
+            }
+            perToken.add(matches.size() == 1 ? matches.get(0) : PostingList.union(matches));
+        }
+        return PostingList.intersect(perToken);
+    }
+
+    /**
+     * Finds recipes whose names approximately contain every query token.
+     *
+     * <p>A query token matches a recipe if some token of the recipe's name
+     * is within the token's maximum edit distance of it. A recipe's score
+     * is the sum, over the query tokens, of the smallest such distance.
+     * Candidates are the intersection of each query token's matching
+     * posting lists, so scores are only computed for recipes that match.
+     *
+     * @param queryTokens the case-folded query tokens; must not be empty
+     * @param maxDistances the largest edit distance allowed for each query token
+     * @return one entry per matching id, holding {@code (score << 32) | id}, in ascending id order
+     */
+    long[] fuzzyMatchNames(List<String> queryTokens, int[] maxDistances) {
+        List<List<List<PostingList>>> byDistance = new ArrayList<>();
+        List<PostingList> perToken = new ArrayList<>();
+        for (int t = 0; t < queryTokens.size(); t++) {
+            // Matching tokens' posting lists, grouped by their distance from the query token.
+            List<List<PostingList>> groups = new ArrayList<>();
+            for (int d = 0; d <= maxDistances[t]; d++) {
+                groups.add(new ArrayList<>());
+            }
+            List<PostingList> all = new ArrayList<>();
+            nameVocabulary.search(queryTokens.get(t), maxDistances[t], (token, distance) -> {
+                PostingList ids = nameTokens.get(token);
+                groups.get(distance).add(ids);
+                all.add(ids);
+            });
+            if (all.isEmpty()) {
+                return new long[0];
+            }
+            byDistance.add(groups);
+            perToken.add(all.size() == 1 ? all.get(0) : PostingList.union(all));
+        }
+
+        int[] ids = PostingList.intersect(perToken);
+        long[] scored = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int score = 0;
+            for (List<List<PostingList>> groups : byDistance) {
+                score += closest(groups, ids[i]);
+            }
+            scored[i] = ((long) score << 32) | ids[i];
+        }
+        return scored;
+    }
+
+    private static int closest(List<List<PostingList>> groups, int id) {
+        for (int d = 0; d < groups.size(); d++) {
+            for (PostingList ids : groups.get(d)) {
+                if (ids.contains(id)) {
+                    return d;
+                }
+            }
+        }
+        throw new IllegalStateException("id " + id + " is not in any matching posting list");
+    }
+
+    /**
+     * Splits a string on whitespace, dropping empty tokens.
+     *
+     * @param s the string to split
+     * @return the tokens in order
+     */
+    static List<String> tokenize(String s) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                if (start >= 0) {
+                    tokens.add(s.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(s.substring(start));
+        }
+        return tokens;
+    }
+
+    // Tokens of one kind, each with the posting list of recipes using it.
+    private static final class Vocabulary {
+        private final Map<String, Integer> tokenIds = new HashMap<>();
+        // Recipe ids per token id.
+        private final Map<Integer, PostingList> postings = new HashMap<>();
+        private final NameTrigramIndex substrings = new NameTrigramIndex(true);
+        // Token ids only increase, as NameTrigramIndex requires.
+        private int nextTokenId;
+
+        PostingList get(String token) {
+            Integer tokenId = tokenIds.get(token);
+            return tokenId == null ? null : postings.get(tokenId);
+        }
+
+        // Returns true if the token was not in the vocabulary before.
+        boolean add(String token, int id) {
+            Integer tokenId = tokenIds.get(token);
+            if (tokenId != null) {
+                postings.get(tokenId).add(id);
+                return false;
+            }
+            tokenId = nextTokenId++;
+            tokenIds.put(token, tokenId);
+            PostingList ids = new PostingList();
+            ids.add(id);
+            postings.put(tokenId, ids);
+            substrings.add(tokenId, token);
+            return true;
+        }
+
+        // Returns true if this was the token's last recipe, so the token is gone.
+        boolean remove(String token, int id) {
+            Integer tokenId = tokenIds.get(token);
+            if (tokenId == null) {
+                return false;
+            }
+            PostingList ids = postings.get(tokenId);
+            if (ids.remove(id) && ids.isEmpty()) {
+                tokenIds.remove(token);
+                postings.remove(tokenId);
+                substrings.remove(tokenId);
+                return true;
+            }
+            return false;
+        }
+
+        void collectMatches(String queryToken, List<PostingList> matches) {
+            for (int tokenId : substrings.search(queryToken)) {
+                matches.add(postings.get(tokenId));
+            }
+        }
+    }
+}
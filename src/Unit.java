@@ -0,0 +1,114 @@
+/**
+ * A unit of measure that can appear at the end of an ingredient name, as in
+ * {@code "olive oil (cup)"}.
+ *
+ * <p>Every unit belongs to a {@link Dimension} and knows its size in that
+ * dimension's canonical unit (milliliters for volume, grams for mass), so
+ * amounts in different units of one dimension can be converted and summed.
+ * US customary measures are used for cups, spoons and fluid ounces.
+ */
+public enum Unit {
+    TEASPOON(Dimension.VOLUME, 4.92892159375, "tsp", "teaspoon", "teaspoons"),
+    TABLESPOON(Dimension.VOLUME, 14.78676478125, "tbsp", "tbs", "tablespoon", "tablespoons"),
+    FLUID_OUNCE(Dimension.VOLUME, 29.5735295625, "fl oz", "fluid ounce", "fluid ounces"),
+    CUP(Dimension.VOLUME, 236.5882365, "cup", "cups"),
+    PINT(Dimension.VOLUME, 473.176473, "pt", "pint", "pints"),
+    QUART(Dimension.VOLUME, 946.352946, "qt", "quart", "quarts"),
+    GALLON(Dimension.VOLUME, 3785.411784, "gal", "gallon", "gallons"),
+    MILLILITER(Dimension.VOLUME, 1, "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+    LITER(Dimension.VOLUME, 1000, "l", "liter", "liters", "litre", "litres"),
+    GRAM(Dimension.MASS, 1, "g", "gram", "grams"),
+    KILOGRAM(Dimension.MASS, 1000, "kg", "kilogram", "kilograms"),
+    OUNCE(Dimension.MASS, 28.349523125, "oz", "ounce", "ounces"),
+    POUND(Dimension.MASS, 453.59237, "lb", "lbs", "pound", "pounds");
+
+    /**
+     * What a unit measures. Each dimension has one canonical unit that
+     * amounts are converted to before they are summed.
+     */
+    public enum Dimension {
+        VOLUME,
+        MASS;
+
+        /**
+         * Returns the canonical unit of this dimension.
+         *
+         * @return {@link Unit#MILLILITER} for volume, {@link Unit#GRAM} for mass
+         */
+        public Unit canonicalUnit() {
+            return this == VOLUME ? MILLILITER : GRAM;
+        }
+    }
+
+    private final Dimension dimension;
+    private final double canonicalAmount;
+    private final String[] symbols;
+
+    Unit(Dimension dimension, double canonicalAmount, String... symbols) {
+        this.dimension = dimension;
+        this.canonicalAmount = canonicalAmount;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Returns the dimension this unit measures.
+     *
+     * @return the dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the short symbol used when writing this unit, such as
+     * {@code "tbsp"}.
+     *
+     * @return the symbol
+     */
+    public String getSymbol() {
+        return symbols[0];
+    }
+
+    /**
+     * Converts an amount in this unit to the canonical unit of its dimension.
+     *
+     * @param amount the amount in this unit
+     * @return the amount in milliliters or grams
+     */
+    public double toCanonical(double amount) {
+        return amount * canonicalAmount;
+    }
+
+    /**
+     * Converts an amount in this unit to another unit of the same dimension.
+     *
+     * @param amount the amount in this unit
+     * @param target the unit to convert to
+     * @return the amount in {@code target}
+     * @throws IllegalArgumentException if target is null or measures a
+     *         different dimension
+     */
+    public double convert(double amount, Unit target) {
+        if (target == null || target.dimension != dimension) {
+            throw new IllegalArgumentException("Cannot convert " + getSymbol() + " to "
+                + (target == null ? "null" : target.getSymbol()));
+        }
+        return target == this ? amount : amount * canonicalAmount / target.canonicalAmount;
+    }
+
+    /**
+     * Returns the unit written as {@code symbol}, such as {@code "tbsp"},
+     * {@code "Cups"} or {@code "fl. oz"}. Matching ignores case, periods
+     * and extra spaces.
+     *
+     * @param symbol the written unit
+     * @return the unit, or null if the symbol is null or not a known unit
+     */
+    public static Unit forSymbol(String symbol) {
+        return symbol == null ? null : IngredientName.parseUnit(symbol, 0, symbol.length());
+    }
+
+    String[] symbols() {
+        return symbols;
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Tests for the AmountFormat class.
+ */
+public class AmountFormatTest {
+    public static void main(String[] args) throws Exception {
+        testSpecExamples();
+        testMatchesReferenceOnBoundaries();
+        testMatchesReferenceOnRandomValues();
+        testAppendable();
+        testRecipeRenderTo();
+        System.out.println("All AmountFormat tests passed.");
+    }
+
+    private static void testSpecExamples() {
+        assertEquals("integer", "200", AmountFormat.format(200.0));
+        assertEquals("one decimal", "7.5", AmountFormat.format(7.5));
+        assertEquals("rounded half up", "0.63", AmountFormat.format(0.625));
+        assertEquals("clipped", "1.33", AmountFormat.format(1.333));
+        assertEquals("quarter", "0.25", AmountFormat.format(0.25));
+        assertEquals("near integer", "1", AmountFormat.format(1.0000000001));
+        assertEquals("rounds up to integer", "2", AmountFormat.format(1.999));
+        assertEquals("leading zero decimal", "3.05", AmountFormat.format(3.05));
+    }
+
+    private static void testMatchesReferenceOnBoundaries() {
+        double[] values = {
+            1.005, 0.125, 2.675, 0.015, 1.115, 99.995, 0.005, 0.001, 1e15 + 0.5,
+            123456789.125, 1e20, -2.5, -0.001, 0.0, 1.0 / 3.0, 2.0 / 3.0,
+            Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY
+        };
+        for (double v : values) {
+            assertEquals("boundary " + v, reference(v), AmountFormat.format(v));
+        }
+    }
+
+    private static void testMatchesReferenceOnRandomValues() {
+        Random random = new Random(357);
+        for (int i = 0; i < 200_000; i++) {
+            double v;
+            switch (i % 4) {
+                case 0: v = random.nextDouble() * 10; break;
+                case 1: v = random.nextInt(100_000) / 1000.0; break;
+                case 2: v = random.nextInt(10_000) / 8.0 * (random.nextInt(12) + 1) / (random.nextInt(12) + 1); break;
+                default: v = random.nextDouble() * 1e7; break;
+            }
+            assertEquals("random " + v, reference(v), AmountFormat.format(v));
+        }
+    }
+
+    private static void testAppendable() throws Exception {
+        StringWriter out = new StringWriter();
+        out.write("[");
+        AmountFormat.appendTo(out, 0.625);
+        out.write("]");
+        assertEquals("appendTo writer", "[0.63]", out.toString());
+    }
+
+    private static void testRecipeRenderTo() throws Exception {
+        Recipe r = new Recipe("Pasta Aglio e Olio", 2);
+        r.addIngredient("spaghetti (g)", 200);
+        r.addIngredient("olive oil (cup)", 0.25);
+        r.scaleToServings(5);
+
+        StringWriter out = new StringWriter();
+        r.renderTo(out);
+        assertEquals("renderTo matches toString", r.toString(), out.toString());
+        assertEquals("renderTo output",
+            "Pasta Aglio e Olio (serves 5)\n- 500 spaghetti (g)\n- 0.63 olive oil (cup)\n", out.toString());
+    }
+
+    // The original Recipe.formatAmount implementation, kept as the reference.
+    private static String reference(double x) {
+        double rounded = Math.rint(x);
+        if (Math.abs(x - rounded) < 1e-9) {
+            return String.valueOf((long) rounded);
+        }
+        String s = String.format(Locale.ROOT, "%.2f", x);
+        if (s.indexOf('.') >= 0) {
+            s = s.replaceAll("0+$", "");
+            s = s.replaceAll("\\.$", "");
+        }
+        return s;
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for the ConcurrentRecipeBook class.
+ */
+public class ConcurrentRecipeBookTest {
+    public static void main(String[] args) throws Exception {
+        testBasicOperations();
+        testSnapshotsAreImmutable();
+        testReadersSeePrefixes();
+        testBatchesAreAtomic();
+        testConcurrentWritersLoseNothing();
+        System.out.println("All ConcurrentRecipeBook tests passed.");
+    }
+
+    private static void testBasicOperations() {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        book.addRecipe(new Recipe("Pancakes", 4));
+        book.addRecipe(new Recipe("Pasta Carbonara", 2));
+        book.addRecipe(new Recipe("Pancakes", 1));
+
+        assertEquals("size", 3, book.size());
+        assertEquals("search", 1, book.searchByName("PASTA").size());
+        assertEquals("empty query", 0, book.searchByName("").size());
+        assertEquals("getRecipe first match", 4, book.getRecipe("Pancakes").getServings());
+        assertTrue("getRecipe is case-sensitive", book.getRecipe("pancakes") == null);
+
+        assertTrue("remove", book.removeRecipe("Pancakes"));
+        assertTrue("remove missing", !book.removeRecipe("Soup"));
+        assertEquals("removes first match", 1, book.getRecipe("Pancakes").getServings());
+        assertEquals("order kept", "Pasta Carbonara", book.getAllRecipes().get(0).getName());
+
+        try {
+            book.addRecipe(null);
+            fail("null recipe should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            book.addAll(Arrays.asList(new Recipe("A", 1), null));
+            fail("batch with null should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals("rejected batch not applied", 2, book.size());
+    }
+
+    private static void testSnapshotsAreImmutable() {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        book.addRecipe(new Recipe("A", 1));
+        List<Recipe> view = book.getAllRecipes();
+        ConcurrentRecipeBook.Snapshot snapshot = book.snapshot();
+
+        for (int i = 0; i < 100; i++) {
+            book.addRecipe(new Recipe("R" + i, 1));
+        }
+        book.removeRecipe("A");
+
+        assertEquals("view unchanged", 1, view.size());
+        assertEquals("view content", "A", view.get(0).getName());
+        assertEquals("snapshot unchanged", 1, snapshot.size());
+        assertTrue("newer version", book.snapshot().version() > snapshot.version());
+        try {
+            view.add(new Recipe("B", 1));
+            fail("view should be unmodifiable");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    // One writer appends R0, R1, ... while readers check that every snapshot
+    // is exactly R0..R(n-1) and that sizes never go backwards.
+    private static void testReadersSeePrefixes() throws Exception {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        int total = 20000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                int lastSize = 0;
+                while (!done.get() && failure.get() == null) {
+                    List<Recipe> all = book.getAllRecipes();
+                    if (all.size() < lastSize) {
+                        failure.set("size went backwards: " + lastSize + " -> " + all.size());
+                    }
+                    lastSize = all.size();
+                    for (int i = 0; i < all.size(); i += Math.max(1, all.size() / 64)) {
+                        if (!all.get(i).getName().equals("R" + i)) {
+                            failure.set("not a prefix at " + i + ": " + all.get(i).getName());
+                        }
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (int i = 0; i < total; i++) {
+            book.addRecipe(new Recipe("R" + i, 1));
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(String.valueOf(failure.get()), failure.get() == null);
+        assertEquals("final size", total, book.size());
+    }
+
+    // Writers publish batches of recipes named B<batch>-<i>; readers must see
+    // each batch completely or not at all.
+    private static void testBatchesAreAtomic() throws Exception {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        int batchSize = 50;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                ConcurrentRecipeBook.Snapshot s = book.snapshot();
+                if (s.size() % batchSize != 0) {
+                    failure.set("partial batch visible: size " + s.size());
+                }
+                if (s.searchByName("b7-").size() % batchSize != 0) {
+                    failure.set("partial batch visible in search");
+                }
+            }
+        });
+        reader.start();
+
+        for (int b = 0; b < 400; b++) {
+            List<Recipe> batch = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(new Recipe("B" + b + "-" + i, 1));
+            }
+            book.addAll(batch);
+        }
+        done.set(true);
+        reader.join();
+
+        assertTrue(String.valueOf(failure.get()), failure.get() == null);
+        assertEquals("final size", 400 * batchSize, book.size());
+    }
+
+    private static void testConcurrentWritersLoseNothing() throws Exception {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    book.addRecipe(new Recipe("W" + writer + "-" + i, 1));
+                    if (i % 10 == 9) {
+                        book.removeRecipe("W" + writer + "-" + (i - 5));
+                    }
+                }
+            });
+            writers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        assertEquals("no lost updates", 4 * 4500, book.size());
+        assertEquals("versions count writes", 4 * 5500, (int) book.snapshot().version());
+        for (int t = 0; t < 4; t++) {
+            int last = -1;
+            for (Recipe r : book.getAllRecipes()) {
+                if (r.getName().startsWith("W" + t + "-")) {
+                    int i = Integer.parseInt(r.getName().substring(3));
+                    assertTrue("per-writer order", i > last);
+                    last = i;
+                }
+            }
+        }
+    }
+
+    // Helper methods
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
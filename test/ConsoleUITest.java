@@ -0,0 +1,196 @@
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the ConsoleUI class.
+ */
+public class ConsoleUITest {
+    public static void main(String[] args) throws Exception {
+        testListAndSearch();
+        testView();
+        testCart();
+        testErrorsDoNotStopBatch();
+        testExitStopsBatch();
+        testLoadAndSave();
+        testInteractiveMenu();
+        testLargeBatch();
+        System.out.println("All ConsoleUI tests passed.");
+    }
+
+    private static void testListAndSearch() throws Exception {
+        String output = runBatch(sampleBook(), "list\nsearch garlic\nsearch-name CAKE\nsearch-ingredient flour\n");
+        assertEquals("output",
+            "All Recipes (3):\n"
+                + "1. Chocolate Cake (8 servings)\n"
+                + "2. Garlic Bread (2 servings)\n"
+                + "3. Pancakes (1 serving)\n"
+                + "Search Results (1):\n"
+                + "1. Garlic Bread (2 servings)\n"
+                + "Search Results (2):\n"
+                + "1. Pancakes (1 serving)\n"
+                + "2. Chocolate Cake (8 servings)\n"
+                + "Search Results (2):\n"
+                + "1. Pancakes (1 serving)\n"
+                + "2. Chocolate Cake (8 servings)\n",
+            output);
+    }
+
+    private static void testView() throws Exception {
+        RecipeBook book = sampleBook();
+        String expected = book.getRecipe("Garlic Bread").toString();
+        assertEquals("view by name", expected, runBatch(book, "view Garlic Bread\n"));
+        assertEquals("view ignores case", expected, runBatch(book, "view garlic bread\n"));
+        String output = runBatch(book, "list\nview 2\n");
+        assertTrue("view by listing number", output.endsWith(expected));
+        output = runBatch(book, "search-name cake\nview 2\n");
+        assertTrue("number refers to latest listing", output.endsWith(book.getRecipe("Chocolate Cake").toString()));
+        assertEquals("number out of range", "Error: no recipe named '9'\n", runBatch(book, "view 9\n"));
+    }
+
+    private static void testCart() throws Exception {
+        String output = runBatch(sampleBook(), "cart Pancakes, chocolate cake\n");
+        assertEquals("cart",
+            "=== Shopping Cart ===\n"
+                + "- 0.75 cocoa powder (cup)\n"
+                + "- 5 eggs\n"
+                + "- 4 flour (cup)\n"
+                + "- 1.5 milk (cup)\n",
+            output);
+        assertEquals("missing recipe", "Error: no recipe named 'Soup'\n", runBatch(sampleBook(), "cart Pancakes, Soup\n"));
+        assertEquals("no names", "Error: cart needs at least one recipe name\n", runBatch(sampleBook(), "cart\n"));
+    }
+
+    private static void testErrorsDoNotStopBatch() throws Exception {
+        String output = runBatch(sampleBook(), "# comment\n\nfrobnicate now\nview\nsearch-name pan\n");
+        assertEquals("errors reported and run continues",
+            "Error: unknown command 'frobnicate' (type 'help' for a list)\n"
+                + "Error: view needs a recipe name or number\n"
+                + "Search Results (1):\n"
+                + "1. Pancakes (1 serving)\n",
+            output);
+    }
+
+    private static void testExitStopsBatch() throws Exception {
+        ConsoleUI ui = new ConsoleUI(sampleBook());
+        StringWriter out = new StringWriter();
+        int count = ui.runBatch(new StringReader("search-name pan\nEXIT\nlist\n"), out);
+        assertEquals("commands run", "2", Integer.toString(count));
+        assertTrue("stopped at exit", out.toString().endsWith("Goodbye!\n"));
+    }
+
+    private static void testLoadAndSave() throws Exception {
+        Path file = Files.createTempFile("console", ".json");
+        try {
+            String saved = runBatch(sampleBook(), "save " + file + "\n");
+            assertEquals("save", "Successfully saved 3 recipes to " + file + "\n", saved);
+
+            RecipeBook book = new RecipeBook();
+            String loaded = runBatch(book, "load " + file + "\nsearch-name bread\n");
+            assertEquals("load",
+                "Successfully loaded 3 recipes from " + file + "\n"
+                    + "Search Results (1):\n"
+                    + "1. Garlic Bread (2 servings)\n",
+                loaded);
+            assertEquals("recipes added to the book", "3", Integer.toString(book.size()));
+
+            book.getRecipe("Garlic Bread").addIngredient("parsley", 1);
+            assertEquals("loaded recipe indexed for new ingredients", "1",
+                Integer.toString(book.searchByIngredient("parsley").size()));
+
+            Files.write(file, ("{\"recipes\": [{\"name\": \"Soup\", \"servings\": 2, \"ingredients\": []},"
+                + " {\"name\": \"\", \"servings\": 1, \"ingredients\": []}]}").getBytes("UTF-8"));
+            assertTrue("invalid recipe reported",
+                runBatch(book, "load " + file + "\n").startsWith("Error: " + file + " is not a valid recipe file"));
+            assertEquals("nothing added from an invalid file", "3", Integer.toString(book.size()));
+
+            Files.write(file, "{\"recipes\": [".getBytes("UTF-8"));
+            assertTrue("malformed file reported",
+                runBatch(book, "load " + file + "\n").startsWith("Error: " + file + " is not a valid recipe file"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertTrue("missing file reported",
+            runBatch(new RecipeBook(), "load " + file + "\n").startsWith("Error: could not read " + file));
+    }
+
+    private static void testInteractiveMenu() throws Exception {
+        ConsoleUI ui = new ConsoleUI(sampleBook());
+        StringWriter out = new StringWriter();
+        ui.runInteractive(new StringReader("2\ngarlic\nsearch-name pan\n7\nlist\n"), out);
+        String output = out.toString();
+        assertTrue("menu shown", output.startsWith("=== Recipe Manager ===\n1. List all recipes\n"));
+        assertTrue("prompted for query",
+            output.contains("Enter command: Enter search query: \nSearch Results (1):\n1. Garlic Bread (2 servings)\n"));
+        assertTrue("typed command accepted", output.contains("\nSearch Results (1):\n1. Pancakes (1 serving)\n"));
+        assertTrue("exit from menu", output.endsWith("Goodbye!\n"));
+    }
+
+    private static void testLargeBatch() throws Exception {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < 1000; i++) {
+            Recipe r = new Recipe("Dish " + i, 2);
+            r.addIngredient("flour (cup)", 1);
+            r.addIngredient("spice " + (i % 50), 1);
+            book.addRecipe(r);
+        }
+        String[] commands = {"search-name dish 99", "view Dish 42", "search spice 7 dish 17", "cart Dish 1, Dish 2",
+                             "search-ingredient spice 33"};
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            script.append(commands[i % commands.length]).append('\n');
+        }
+
+        ConsoleUI ui = new ConsoleUI(book);
+        StringWriter out = new StringWriter();
+        long start = System.nanoTime();
+        int count = ui.runBatch(new StringReader(script.toString()), out);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals("all commands run", "100000", Integer.toString(count));
+        // The target is a second or two; the bound leaves room for slow machines.
+        assertTrue("100k commands took " + millis + "ms", millis < 10_000);
+    }
+
+    // Helper methods
+    private static RecipeBook sampleBook() {
+        RecipeBook book = new RecipeBook();
+        Recipe bread = new Recipe("Garlic Bread", 2);
+        bread.addIngredient("bread", 1);
+        bread.addIngredient("garlic", 4);
+        Recipe pancakes = new Recipe("Pancakes", 1);
+        pancakes.addIngredient("flour (cup)", 2);
+        pancakes.addIngredient("eggs", 2);
+        pancakes.addIngredient("milk (cup)", 1.5);
+        Recipe cake = new Recipe("Chocolate Cake", 8);
+        cake.addIngredient("flour (cup)", 2);
+        cake.addIngredient("cocoa powder (cup)", 0.75);
+        cake.addIngredient("eggs", 3);
+        book.addRecipe(bread);
+        book.addRecipe(pancakes);
+        book.addRecipe(cake);
+        return book;
+    }
+
+    private static String runBatch(RecipeBook book, String script) throws Exception {
+        StringWriter out = new StringWriter();
+        new ConsoleUI(book).runBatch(new StringReader(script), out);
+        return out.toString();
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
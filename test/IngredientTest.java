@@ -8,6 +8,7 @@ public class IngredientTest {
         testConstructorInvalidAmount();
         testGetters();
         testScale();
+        testUnit();
         testToString();
         System.out.println("All Ingredient tests passed.");
     }
@@ -69,6 +70,25 @@ public class IngredientTest {
         assertEquals("fractional scale", 50.0, scaled2.getAmount(), 1e-9);
     }
 
+    private static void testUnit() {
+        Ingredient oil = new Ingredient("olive oil (cup)", 0.25);
+        assertEquals("base name", "olive oil", oil.getBaseName());
+        assertTrue("unit", oil.getUnit() == Unit.CUP);
+
+        Ingredient flakes = new Ingredient("red pepper flakes ( Tsp. )", 0.5);
+        assertEquals("base name with odd spacing", "red pepper flakes", flakes.getBaseName());
+        assertTrue("unit ignores case, spaces and periods", flakes.getUnit() == Unit.TEASPOON);
+        assertTrue("two-word unit", new Ingredient("milk (fl oz)", 4).getUnit() == Unit.FLUID_OUNCE);
+
+        String[] noUnit = {"eggs", "salt (pinch)", "(cup)", "cup)", "flour (cup) sifted", "a (b) (c))"};
+        for (String name : noUnit) {
+            Ingredient ing = new Ingredient(name, 1);
+            assertTrue("no unit in '" + name + "'", ing.getUnit() == null);
+            assertEquals("whole name kept for '" + name + "'", name, ing.getBaseName());
+        }
+        assertTrue("scaled copy keeps unit", oil.scale(2).getUnit() == Unit.CUP);
+    }
+
     private static void testToString() {
         Ingredient ing = new Ingredient("eggs", 3.0);
         String str = ing.toString();
@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,6 +11,22 @@ public class RecipeBookTest {
         testGetAllRecipes();
         testSize();
         testSearchByName();
+        testGetRecipe();
+        testRemoveRecipeKeepsOrder();
+        testSearchByNameIndex();
+        testSearchByIngredient();
+        testMultiTokenSearch();
+        testTokenSubstringLookup();
+        testSearchSeesNewIngredients();
+        testIngredientNamesShared();
+        testSortedIndex();
+        testNameRange();
+        testSearchCache();
+        testAddAll();
+        testBulkLoadedSortedIndex();
+        testFilter();
+        testFuzzySearch();
+        testFuzzySearchAfterRemovals();
         System.out.println("All RecipeBook tests passed.");
     }
 
@@ -102,7 +119,567 @@ public class RecipeBookTest {
         assertEquals("null query", 0, results5.size());
     }
 
+    private static void testGetRecipe() {
+        RecipeBook book = new RecipeBook();
+        Recipe soup = new Recipe("Tomato Soup", 4);
+        book.addRecipe(soup);
+        book.addRecipe(new Recipe("Salad", 1));
+
+        assertTrue("getRecipe exact", book.getRecipe("Tomato Soup") == soup);
+        assertTrue("getRecipe is case-sensitive", book.getRecipe("tomato soup") == null);
+        assertTrue("getRecipeIgnoreCase", book.getRecipeIgnoreCase("TOMATO soup") == soup);
+        assertTrue("getRecipe missing", book.getRecipe("Pizza") == null);
+        assertTrue("getRecipe null", book.getRecipe(null) == null);
+        assertTrue("getRecipeIgnoreCase null", book.getRecipeIgnoreCase(null) == null);
+
+        book.removeRecipe("Tomato Soup");
+        assertTrue("getRecipe after remove", book.getRecipe("Tomato Soup") == null);
+        assertTrue("getRecipeIgnoreCase after remove", book.getRecipeIgnoreCase("tomato soup") == null);
+    }
+
+    private static void testRemoveRecipeKeepsOrder() {
+        RecipeBook book = new RecipeBook();
+        Recipe first = new Recipe("Stew", 4);
+        Recipe second = new Recipe("Stew", 6);
+        book.addRecipe(new Recipe("Bread", 2));
+        book.addRecipe(first);
+        book.addRecipe(new Recipe("Jam", 10));
+        book.addRecipe(second);
+
+        assertTrue("remove first duplicate", book.removeRecipe("Stew"));
+        assertEquals("one duplicate removed", 3, book.size());
+        assertTrue("second duplicate remains", book.getRecipe("Stew") == second);
+
+        List<Recipe> all = book.getAllRecipes();
+        assertTrue("order preserved [0]", all.get(0).getName().equals("Bread"));
+        assertTrue("order preserved [1]", all.get(1).getName().equals("Jam"));
+        assertTrue("order preserved [2]", all.get(2) == second);
+
+        assertTrue("remove second duplicate", book.removeRecipe("Stew"));
+        assertFalse("no more duplicates", book.removeRecipe("Stew"));
+    }
+
+    private static void testSearchByNameIndex() {
+        RecipeBook book = new RecipeBook();
+        book.addRecipe(new Recipe("Carrot Cake", 8));
+        book.addRecipe(new Recipe("Pancakes", 4));
+        book.addRecipe(new Recipe("Cupcake", 12));
+        book.addRecipe(new Recipe("Cheesecake", 10));
+
+        List<Recipe> results = book.searchByName("CAKE");
+        assertEquals("trigram search count", 4, results.size());
+        assertTrue("insertion order [0]", results.get(0).getName().equals("Carrot Cake"));
+        assertTrue("insertion order [3]", results.get(3).getName().equals("Cheesecake"));
+
+        assertEquals("trigrams present but not contiguous", 0, book.searchByName("cakecar").size());
+        assertEquals("short query", 1, book.searchByName("pC").size());
+        assertEquals("query spanning a space", 1, book.searchByName("t c").size());
+
+        book.removeRecipe("Pancakes");
+        assertEquals("removed recipe no longer found", 0, book.searchByName("pancake").size());
+        assertEquals("others still found", 3, book.searchByName("cake").size());
+
+        book.addRecipe(new Recipe("Pancakes", 2));
+        List<Recipe> readded = book.searchByName("cake");
+        assertTrue("re-added recipe goes last", readded.get(3).getName().equals("Pancakes"));
+    }
+
+    private static RecipeBook sampleBook() {
+        RecipeBook book = new RecipeBook();
+        Recipe pasta = new Recipe("Pasta Aglio e Olio", 2);
+        pasta.addIngredient("spaghetti (g)", 200);
+        pasta.addIngredient("garlic cloves", 3);
+        pasta.addIngredient("olive oil (cup)", 0.25);
+        Recipe bread = new Recipe("Garlic Bread", 2);
+        bread.addIngredient("bread", 1);
+        bread.addIngredient("butter (tbsp)", 2);
+        Recipe pancakes = new Recipe("Pancakes", 4);
+        pancakes.addIngredient("flour (cup)", 2);
+        pancakes.addIngredient("vegetable oil (tbsp)", 1);
+        book.addRecipe(pasta);
+        book.addRecipe(bread);
+        book.addRecipe(pancakes);
+        return book;
+    }
+
+    private static void testSearchByIngredient() {
+        RecipeBook book = sampleBook();
+
+        List<Recipe> oil = book.searchByIngredient("  OIL ");
+        assertEquals("ingredient search count", 2, oil.size());
+        assertTrue("ingredient search order", oil.get(0).getName().equals("Pasta Aglio e Olio"));
+
+        assertEquals("partial ingredient match", 1, book.searchByIngredient("spag").size());
+        assertEquals("multi-word ingredient", 1, book.searchByIngredient("olive oil").size());
+        assertEquals("words in different ingredients", 0, book.searchByIngredient("cloves olive").size());
+        assertEquals("recipe name is not an ingredient", 0, book.searchByIngredient("pasta").size());
+        assertEquals("blank query", 0, book.searchByIngredient("   ").size());
+        assertEquals("null query", 0, book.searchByIngredient(null).size());
+    }
+
+    private static void testMultiTokenSearch() {
+        RecipeBook book = sampleBook();
+
+        List<Recipe> results = book.search("garlic oil");
+        assertEquals("all tokens must match", 1, results.size());
+        assertTrue("garlic oil matches pasta", results.get(0).getName().equals("Pasta Aglio e Olio"));
+
+        assertEquals("token in name or ingredient", 2, book.search("garlic").size());
+        assertEquals("mixed name and ingredient tokens", 1, book.search("bread BUTT").size());
+        assertEquals("one token missing", 0, book.search("garlic flour").size());
+        assertEquals("whitespace only", 0, book.search(" ").size());
+        assertEquals("null query", 0, book.search(null).size());
+
+        book.removeRecipe("Garlic Bread");
+        assertEquals("removed recipe not found", 0, book.search("butter").size());
+        assertEquals("other recipes still found", 1, book.search("garlic").size());
+    }
+
+    private static void testTokenSubstringLookup() {
+        RecipeBook book = new RecipeBook();
+        String[] words = {"oil", "olive", "soil", "boiled", "egg", "eggplant", "o", "xo", "toast"};
+        for (int i = 0; i < 60; i++) {
+            Recipe r = new Recipe(words[i % words.length] + " dish " + i, 2);
+            r.addIngredient(words[(i * 5) % words.length] + " " + words[(i * 7) % words.length], 1);
+            book.addRecipe(r);
+        }
+        for (int i = 0; i < 60; i += 4) {
+            book.removeRecipe(words[i % words.length] + " dish " + i);
+        }
+
+        // Removed recipes must be gone from every token's postings. One- and
+        // two-character tokens come from their own postings, longer ones from trigrams.
+        String[] queries = {"o", "oi", "oil", "l", "gg", "eggp", "xo", "st dish", "oil egg", "ish 3", "dish 0", "zz"};
+        for (String query : queries) {
+            List<Recipe> expected = new ArrayList<>();
+            for (Recipe r : book.getAllRecipes()) {
+                if (containsEveryToken(r, query)) {
+                    expected.add(r);
+                }
+            }
+            assertSameRecipes("search '" + query + "'", expected, book.search(query));
+        }
+    }
+
+    private static boolean containsEveryToken(Recipe r, String query) {
+        for (String token : query.trim().split("\\s+")) {
+            boolean found = r.getName().toLowerCase().contains(token);
+            for (int i = 0; i < r.totalIngredientCount() && !found; i++) {
+                found = r.getIngredientName(i).toLowerCase().contains(token);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void testSearchSeesNewIngredients() {
+        RecipeBook book = sampleBook();
+        Recipe bread = book.getRecipe("Garlic Bread");
+
+        assertEquals("before ingredient added", 0, book.searchByIngredient("parsley").size());
+        bread.addIngredient("Parsley (cup)", 0.25);
+        assertEquals("after ingredient added", 1, book.searchByIngredient("parsley").size());
+        assertEquals("multi-token after ingredient added", 1, book.search("garlic parsley").size());
+
+        book.removeRecipe("Garlic Bread");
+        bread.addIngredient("chives", 1);
+        assertEquals("removed recipe no longer tracked", 0, book.searchByIngredient("chives").size());
+    }
+
+    private static void testIngredientNamesShared() {
+        RecipeBook book = new RecipeBook();
+        Recipe a = new Recipe("A", 1);
+        a.addIngredient(new String("flour (cup)"), 1);
+        Recipe b = new Recipe("B", 1);
+        b.addIngredient(new String("flour (cup)"), 2);
+        b.addIngredient("Flour (cup) ", 3);
+        book.addRecipe(a);
+        book.addRecipe(b);
+
+        assertTrue("one instance per name", a.getIngredientName(0) == b.getIngredientName(0));
+        assertTrue("same id", a.getIngredientId(0) == b.getIngredientId(0));
+        IngredientDictionary dictionary = book.ingredientDictionary();
+        assertTrue("recipes use the book dictionary", a.dictionary() == dictionary && b.dictionary() == dictionary);
+        assertEquals("distinct names", 2, dictionary.size());
+        assertEquals("normalized names", 1, dictionary.normalizedCount());
+        assertTrue("names unchanged", b.getIngredientName(1).equals("Flour (cup) "));
+
+        a.addIngredient("salt", 1);
+        assertEquals("added names use the book dictionary", 3, dictionary.size());
+    }
+
+    private static void testSortedIndex() {
+        RecipeBook indexed = new RecipeBook(true);
+        RecipeBook plain = new RecipeBook();
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 1000; i++) {
+            String name = "Dish " + random.nextInt(200);
+            Recipe r = new Recipe(random.nextBoolean() ? name : name.toUpperCase(), 1);
+            indexed.addRecipe(r);
+            plain.addRecipe(r);
+        }
+        for (int i = 0; i < 300; i++) {
+            String name = "Dish " + random.nextInt(200);
+            indexed.removeRecipe(name);
+            plain.removeRecipe(name);
+        }
+
+        List<Recipe> expected = RecipeSorter.sortByName(plain.getAllRecipes());
+        List<Recipe> fromIndex = indexed.getRecipesSortedByName();
+        assertEquals("indexed size", expected.size(), fromIndex.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue("indexed order at " + i, expected.get(i) == fromIndex.get(i));
+        }
+        List<Recipe> fromPlain = plain.getRecipesSortedByName();
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue("unindexed order at " + i, expected.get(i) == fromPlain.get(i));
+        }
+        assertTrue("insertion order kept", indexed.getAllRecipes().equals(plain.getAllRecipes()));
+    }
+
+    private static void testNameRange() {
+        for (boolean sortedIndex : new boolean[] {true, false}) {
+            RecipeBook book = new RecipeBook(sortedIndex);
+            for (String name : new String[] {"Eggs", "bread", "Apple Pie", "Crepes", "dumplings", "B", "E", "cake"}) {
+                book.addRecipe(new Recipe(name, 1));
+            }
+            assertEquals("B to E", "[B, bread, cake, Crepes, dumplings]", names(book.getRecipesInNameRange("b", "E")));
+            assertEquals("open start", "[Apple Pie]", names(book.getRecipesInNameRange(null, "b")));
+            assertEquals("open end", "[E, Eggs]", names(book.getRecipesInNameRange("e", null)));
+            assertEquals("everything", 8, book.getRecipesInNameRange(null, null).size());
+            assertEquals("empty range", "[]", names(book.getRecipesInNameRange("d", "c")));
+            assertEquals("same bounds", "[]", names(book.getRecipesInNameRange("cake", "CAKE")));
+        }
+    }
+
+    private static void testSearchCache() {
+        RecipeBook book = sampleBook();
+        assertEquals("miss", 1, book.searchByName("garlic").size());
+        List<Recipe> hit = book.searchByName("GARLIC");
+        assertEquals("hit on normalized query", 1, hit.size());
+        assertEquals("ingredient search cached separately", 1, book.searchByIngredient(" Garlic ").size());
+        assertEquals("multi-token normalized", 1, book.search("garlic  oil").size());
+        assertEquals("multi-token hit", 1, book.search(" GARLIC oil").size());
+        CacheStats stats = book.getSearchCacheStats();
+        assertEquals("hits", 2, (int) stats.getHits());
+        assertEquals("misses", 3, (int) stats.getMisses());
+
+        hit.clear();
+        assertEquals("cached result not shared", 1, book.searchByName("garlic").size());
+
+        book.addRecipe(new Recipe("Garlic Knots", 4));
+        assertEquals("add invalidates", 2, book.searchByName("garlic").size());
+        book.getRecipe("Pancakes").addIngredient("garlic powder", 1);
+        assertEquals("ingredient change invalidates", 2, book.searchByIngredient("garlic").size());
+        book.removeRecipe("Garlic Bread");
+        assertEquals("remove invalidates", 1, book.searchByName("garlic").size());
+        assertEquals("invalidations counted", 3, (int) book.getSearchCacheStats().getInvalidations());
+
+        book.setSearchCacheCapacity(2);
+        book.searchByName("a");
+        book.searchByName("b");
+        book.searchByName("a");
+        book.searchByName("c");
+        book.searchByName("a");
+        stats = book.getSearchCacheStats();
+        assertEquals("least recently used evicted", 1, (int) stats.getEvictions());
+        assertEquals("recently used kept", 2, (int) stats.getHits());
+        assertEquals("bounded size", 2, stats.getSize());
+
+        book.setSearchCacheCapacity(0);
+        book.searchByName("a");
+        book.searchByName("a");
+        assertEquals("disabled cache", 0, (int) book.getSearchCacheStats().getHits());
+    }
+
+    private static void testAddAll() {
+        java.util.Random random = new java.util.Random(7);
+        List<Recipe> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = "Dish " + random.nextInt(1000);
+            Recipe r = new Recipe(random.nextBoolean() ? name : name.toUpperCase(), 2);
+            r.addIngredient("Spice " + random.nextInt(50), 1);
+            r.addIngredient("water", 2);
+            batch.add(r);
+        }
+        batch.add(batch.get(0));
+
+        RecipeBook incremental = new RecipeBook(true);
+        RecipeBook bulk = new RecipeBook(batch.size(), true);
+        Recipe starter = new Recipe("Starter", 1);
+        incremental.addRecipe(starter);
+        bulk.addRecipe(starter);
+        for (Recipe r : batch.subList(0, 2500)) {
+            incremental.addRecipe(r);
+        }
+        bulk.addAll(batch.subList(0, 2500));
+        for (Recipe r : batch.subList(2500, batch.size())) {
+            incremental.addRecipe(r);
+        }
+        bulk.addAll(batch.subList(2500, batch.size()));
+
+        assertEquals("bulk size", incremental.size(), bulk.size());
+        assertTrue("insertion order", incremental.getAllRecipes().equals(bulk.getAllRecipes()));
+        assertSameRecipes("sorted order", incremental.getRecipesSortedByName(), bulk.getRecipesSortedByName());
+        for (String query : new String[] {"dish 1", "DISH 99", "starter", "sp"}) {
+            assertSameRecipes("name search " + query, incremental.searchByName(query), bulk.searchByName(query));
+        }
+        for (String query : new String[] {"spice 7", "water"}) {
+            assertSameRecipes("ingredient search " + query,
+                incremental.searchByIngredient(query), bulk.searchByIngredient(query));
+        }
+        assertSameRecipes("token search", incremental.search("dish spice"), bulk.search("dish spice"));
+        assertTrue("case-insensitive lookup",
+            incremental.getRecipeIgnoreCase("dish 5") == bulk.getRecipeIgnoreCase("dish 5"));
+
+        batch.get(0).addIngredient("saffron", 1);
+        assertEquals("both copies see new ingredient", 2, bulk.searchByIngredient("saffron").size());
+        assertSameRecipes("new ingredient indexed", incremental.searchByIngredient("saffron"),
+            bulk.searchByIngredient("saffron"));
+        String removedName = batch.get(1).getName();
+        incremental.removeRecipe(removedName);
+        bulk.removeRecipe(removedName);
+        assertSameRecipes("remove after bulk", incremental.getRecipesSortedByName(), bulk.getRecipesSortedByName());
+
+        int before = bulk.size();
+        try {
+            bulk.addAll(java.util.Arrays.asList(new Recipe("Fine", 1), null));
+            fail("addAll should throw on a null element");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals("unchanged after rejected batch", before, bulk.size());
+        assertTrue("nothing from rejected batch", bulk.getRecipe("Fine") == null);
+        try {
+            bulk.addAll(null);
+            fail("addAll should throw on null");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            new RecipeBook(-1, false);
+            fail("negative expected size should throw");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void testBulkLoadedSortedIndex() {
+        java.util.Random random = new java.util.Random(11);
+        List<Recipe> batch = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            String name = "Dish " + random.nextInt(1500);
+            batch.add(new Recipe(random.nextBoolean() ? name : name.toUpperCase(), 2));
+        }
+
+        RecipeBook incremental = new RecipeBook(true);
+        RecipeBook bulk = new RecipeBook(true);
+        // Into an empty index, a smaller batch, then a batch larger than the index.
+        List<List<Recipe>> parts = java.util.Arrays.asList(
+            batch.subList(0, 3000), batch.subList(3000, 3100), batch.subList(3100, batch.size()));
+        for (List<Recipe> part : parts) {
+            for (Recipe r : part) {
+                incremental.addRecipe(r);
+            }
+            bulk.addAll(part);
+            assertSameRecipes("sorted after " + bulk.size(),
+                incremental.getRecipesSortedByName(), bulk.getRecipesSortedByName());
+        }
+
+        String[][] ranges = {{null, null}, {"dish 2", "dish 5"}, {null, "DISH 3"}, {"dish 9", null}, {"dish 4", "dish 4"}};
+        for (String[] range : ranges) {
+            assertSameRecipes("range " + range[0] + ".." + range[1],
+                incremental.getRecipesInNameRange(range[0], range[1]), bulk.getRecipesInNameRange(range[0], range[1]));
+        }
+
+        Recipe late = new Recipe("dish 2500", 1);
+        incremental.addRecipe(late);
+        bulk.addRecipe(late);
+        for (int i = 0; i < 50; i++) {
+            String name = batch.get(i).getName();
+            incremental.removeRecipe(name);
+            bulk.removeRecipe(name);
+        }
+        assertSameRecipes("sorted after changes", incremental.getRecipesSortedByName(), bulk.getRecipesSortedByName());
+        assertSameRecipes("range after changes",
+            incremental.getRecipesInNameRange("dish 1", "dish 3"), bulk.getRecipesInNameRange("dish 1", "dish 3"));
+    }
+
+    private static void testFilter() {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < 5000; i++) {
+            Recipe r = new Recipe("Dish " + i, 1 + i % 6);
+            book.addRecipe(r);
+        }
+        java.util.function.Predicate<Recipe> serves4 = r -> r.getServings() == 4;
+
+        book.setParallelScanThreshold(Integer.MAX_VALUE);
+        List<Recipe> sequential = book.filter(serves4);
+        book.setParallelScanThreshold(0);
+        assertEquals("threshold", 0, book.getParallelScanThreshold());
+        List<Recipe> parallel = book.filter(serves4);
+        assertEquals("match count", 833, sequential.size());
+        assertSameRecipes("parallel keeps insertion order", sequential, parallel);
+        assertEquals("first match", "Dish 3", parallel.get(0).getName());
+        assertEquals("last match", "Dish 4995", parallel.get(parallel.size() - 1).getName());
+
+        book.removeRecipe("Dish 3");
+        book.addRecipe(new Recipe("Late", 4));
+        List<Recipe> afterChange = book.filter(serves4);
+        assertEquals("removed recipe not scanned", "Dish 9", afterChange.get(0).getName());
+        assertEquals("added recipe scanned last", "Late", afterChange.get(afterChange.size() - 1).getName());
+        assertEquals("no matches", 0, book.filter(r -> false).size());
+        assertEquals("parallel name range", 1111, book.getRecipesInNameRange("dish 1", "dish 2").size());
+
+        try {
+            book.filter(null);
+            fail("filter should throw on null");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            book.setParallelScanThreshold(-1);
+            fail("negative threshold should throw");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void testFuzzySearch() {
+        RecipeBook book = new RecipeBook();
+        for (String name : new String[] {"Chocolate Cupcake", "Chocolate Cake", "Carrot Cake", "Hot Chocolate",
+                                         "Chicken Curry"}) {
+            book.addRecipe(new Recipe(name, 2));
+        }
+        assertEquals("exact substring search misses typos", 0, book.searchByName("choclate cake").size());
+        assertEquals("typo tolerated", "[Chocolate Cake]", names(book.searchFuzzy("choclate cake")));
+        assertEquals("ranked by distance, then insertion order",
+            "[Chocolate Cake, Carrot Cake, Chocolate Cupcake]", names(book.searchFuzzy("CAKE", 3)));
+        assertEquals("every word must match", "[Chocolate Cake, Chocolate Cupcake]",
+            names(book.searchFuzzy("chocolate cake", 3)));
+        assertEquals("single word", "[Chocolate Cupcake, Chocolate Cake, Hot Chocolate]",
+            names(book.searchFuzzy("chocolat")));
+        assertEquals("distance 0 is whole-word match", "[Chocolate Cake, Carrot Cake]",
+            names(book.searchFuzzy("cake", 0)));
+        assertEquals("short words must match exactly", "[]", names(book.searchFuzzy("ht")));
+        assertEquals("hot within one edit", "[Hot Chocolate]", names(book.searchFuzzy("ht", 1)));
+        assertEquals("three letters allow one edit", "[Hot Chocolate]", names(book.searchFuzzy("hat")));
+        assertEquals("empty query", 0, book.searchFuzzy("   ").size());
+        assertEquals("null query", 0, book.searchFuzzy(null).size());
+
+        book.removeRecipe("Chocolate Cake");
+        assertEquals("removed recipe not found", "[Chocolate Cupcake]", names(book.searchFuzzy("choclate cake", 3)));
+        book.removeRecipe("Carrot Cake");
+        assertEquals("word no longer indexed", "[]", names(book.searchFuzzy("cake", 0)));
+        book.addRecipe(new Recipe("Pound Cake", 8));
+        assertEquals("word indexed again", "[Pound Cake]", names(book.searchFuzzy("cake", 0)));
+
+        try {
+            book.searchFuzzy("cake", RecipeBook.MAX_FUZZY_DISTANCE + 1);
+            fail("distance above maximum should throw");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            book.searchFuzzy("cake", -1);
+            fail("negative distance should throw");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void testFuzzySearchAfterRemovals() {
+        String[] words = {"ox", "pie", "tea", "bun", "jam", "fig", "stew", "cake", "tart", "bao"};
+        java.util.Random random = new java.util.Random(5);
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < 600; i++) {
+            book.addRecipe(new Recipe(words[random.nextInt(words.length)] + " w" + i, 1));
+        }
+        for (int i = 0; i < 600; i += 3) {
+            book.removeRecipe(book.getAllRecipes().get(i / 3).getName());
+        }
+        for (int i = 600; i < 700; i++) {
+            book.addRecipe(new Recipe(words[random.nextInt(words.length)] + " w" + i, 1));
+        }
+
+        // Short queries with large distances have no trigram bound and use the length buckets.
+        String[] queries = {"pi", "te", "ox", "tar", "xq", "w12", "w1", "cake w45", "bun w650"};
+        for (String query : queries) {
+            for (int distance = 0; distance <= RecipeBook.MAX_FUZZY_DISTANCE; distance++) {
+                assertEquals("fuzzy " + query + " within " + distance,
+                    names(bruteForceFuzzy(book.getAllRecipes(), query, distance)),
+                    names(book.searchFuzzy(query, distance)));
+            }
+        }
+        book.removeRecipe(book.searchFuzzy("w650", 0).get(0).getName());
+        assertEquals("last use of a word removed", "[]", names(book.searchFuzzy("w650", 0)));
+    }
+
+    private static void assertSameRecipes(String label, List<Recipe> expected, List<Recipe> actual) {
+        assertEquals(label + " size", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(label + " at " + i, expected.get(i) == actual.get(i));
+        }
+    }
+
+    // Recipes where every query word is within distance of some name word, closest first.
+    private static List<Recipe> bruteForceFuzzy(List<Recipe> recipes, String query, int distance) {
+        List<String> queryWords = java.util.Arrays.asList(query.toLowerCase().trim().split("\\s+"));
+        List<Recipe> matches = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        for (Recipe r : recipes) {
+            int score = 0;
+            for (String queryWord : queryWords) {
+                int best = distance + 1;
+                for (String word : r.getName().toLowerCase().split("\\s+")) {
+                    best = Math.min(best, editDistance(queryWord, word));
+                }
+                score = best > distance || score < 0 ? -1 : score + best;
+            }
+            if (score >= 0) {
+                int at = matches.size();
+                while (at > 0 && scores.get(at - 1) > score) {
+                    at--;
+                }
+                matches.add(at, r);
+                scores.add(at, score);
+            }
+        }
+        return matches;
+    }
+
+    private static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String names(List<Recipe> recipes) {
+        List<String> names = new ArrayList<>();
+        for (Recipe r : recipes) {
+            names.add(r.getName());
+        }
+        return names.toString();
+    }
+
     // Helper methods
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
     private static void assertEquals(String label, int expected, int actual) {
         if (expected != actual) {
             fail(label + " expected " + expected + " but was " + actual);
@@ -0,0 +1,203 @@
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the RecipeHttpService class.
+ */
+public class RecipeHttpServiceTest {
+    private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    public static void main(String[] args) throws Exception {
+        ConcurrentRecipeBook book = sampleBook();
+        RecipeHttpService service = new RecipeHttpService(book);
+        service.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), RecipeHttpService.DEFAULT_BACKLOG);
+        String base = "http://localhost:" + service.getPort();
+        try {
+            testList(base);
+            testSearch(base);
+            testView(base);
+            testScaledView(base, book);
+            testCart(base);
+            testErrors(base);
+            testConcurrentRequests(base);
+            testDefaultExecutor(service);
+        } finally {
+            service.stop();
+        }
+        testCallerExecutor(book);
+        System.out.println("All RecipeHttpService tests passed.");
+    }
+
+    private static void testList(String base) throws Exception {
+        HttpResponse<String> response = get(base + "/recipes");
+        assertEquals("status", 200, response.statusCode());
+        assertEquals("content type", "application/json; charset=utf-8",
+            response.headers().firstValue("Content-Type").orElse(""));
+        assertEquals("body",
+            "{\"count\": 3, \"recipes\": [\n"
+                + "  { \"name\": \"Garlic Bread\", \"servings\": 2 },\n"
+                + "  { \"name\": \"Pancakes\", \"servings\": 4 },\n"
+                + "  { \"name\": \"Say \\\"Cheese\\\"\", \"servings\": 1 }\n"
+                + "]}\n",
+            response.body());
+    }
+
+    private static void testSearch(String base) throws Exception {
+        assertEquals("search",
+            "{\"count\": 1, \"recipes\": [\n  { \"name\": \"Pancakes\", \"servings\": 4 }\n]}\n",
+            get(base + "/recipes?q=PAN").body());
+        assertEquals("encoded query", "{\"count\": 1, \"recipes\": [\n  { \"name\": \"Garlic Bread\", \"servings\": 2 }\n]}\n",
+            get(base + "/recipes?q=c%20br").body());
+        assertEquals("no match", "{\"count\": 0, \"recipes\": []}\n", get(base + "/recipes?q=zzz").body());
+    }
+
+    private static void testView(String base) throws Exception {
+        HttpResponse<String> response = get(base + "/recipes/Garlic%20Bread");
+        assertEquals("status", 200, response.statusCode());
+        assertEquals("recipe",
+            "{\n"
+                + "  \"name\": \"Garlic Bread\",\n"
+                + "  \"servings\": 2,\n"
+                + "  \"ingredients\": [\n"
+                + "    { \"name\": \"bread\", \"amount\": 1 },\n"
+                + "    { \"name\": \"butter (tbsp)\", \"amount\": 1.5 }\n"
+                + "  ]\n"
+                + "}\n",
+            response.body());
+    }
+
+    private static void testScaledView(String base, ConcurrentRecipeBook book) throws Exception {
+        String body = get(base + "/recipes/Garlic%20Bread?servings=6").body();
+        assertTrue("scaled servings", body.contains("\"servings\": 6,"));
+        assertTrue("scaled amount", body.contains("{ \"name\": \"butter (tbsp)\", \"amount\": 4.5 }"));
+        Recipe stored = book.getRecipe("Garlic Bread");
+        assertEquals("stored servings unchanged", 2, stored.getServings());
+        assertTrue("stored amount unchanged", stored.getIngredientAmount(1) == 1.5);
+    }
+
+    private static void testCart(String base) throws Exception {
+        assertEquals("cart",
+            "{\"items\": [\n"
+                + "  { \"name\": \"bread\", \"amount\": 1 },\n"
+                + "  { \"name\": \"butter (tbsp)\", \"amount\": 3.5 },\n"
+                + "  { \"name\": \"flour (cup)\", \"amount\": 2 }\n"
+                + "]}\n",
+            get(base + "/cart?recipe=Garlic+Bread&recipe=Pancakes").body());
+    }
+
+    private static void testErrors(String base) throws Exception {
+        HttpResponse<String> missing = get(base + "/recipes/Soup");
+        assertEquals("missing recipe", 404, missing.statusCode());
+        assertEquals("error body", "{\"error\": \"No recipe named 'Soup'\"}\n", missing.body());
+        assertEquals("bad servings", 400, get(base + "/recipes/Pancakes?servings=0").statusCode());
+        assertEquals("missing cart recipe", 404, get(base + "/cart?recipe=Soup").statusCode());
+        assertEquals("empty cart", 400, get(base + "/cart").statusCode());
+        assertEquals("unknown path", 404, get(base + "/recipesX").statusCode());
+
+        HttpRequest post = HttpRequest.newBuilder(URI.create(base + "/recipes"))
+            .POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+        HttpResponse<String> response = CLIENT.send(post, HttpResponse.BodyHandlers.ofString());
+        assertEquals("method not allowed", 405, response.statusCode());
+        assertEquals("allow header", "GET", response.headers().firstValue("Allow").orElse(""));
+    }
+
+    private static void testConcurrentRequests(String base) throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> pending = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String path = i % 2 == 0 ? "/recipes?q=bread" : "/cart?recipe=Pancakes";
+            pending.add(CLIENT.sendAsync(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                                         HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            HttpResponse<String> response = pending.get(i).get();
+            assertEquals("concurrent status " + i, 200, response.statusCode());
+            assertTrue("concurrent body " + i, response.body().contains(i % 2 == 0 ? "Garlic Bread" : "flour"));
+        }
+    }
+
+    private static void testDefaultExecutor(RecipeHttpService service) {
+        assertEquals("default executor",
+            "pool of " + RecipeHttpService.defaultThreadCount() + " platform threads",
+            service.getExecutorDescription());
+    }
+
+    private static void testCallerExecutor(ConcurrentRecipeBook book) throws Exception {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Executor counting = task -> {
+            tasks.incrementAndGet();
+            pool.execute(task);
+        };
+        RecipeHttpService service = new RecipeHttpService(book, counting);
+        assertTrue("describes caller's executor", service.getExecutorDescription().startsWith("caller's executor"));
+        try {
+            service.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), RecipeHttpService.DEFAULT_BACKLOG);
+            String base = "http://localhost:" + service.getPort();
+            assertEquals("served on caller's executor", 200, get(base + "/recipes/Pancakes").statusCode());
+            assertTrue("request ran on caller's executor", tasks.get() > 0);
+            service.stop();
+            assertTrue("caller's executor left running", !pool.isShutdown());
+        } finally {
+            service.stop();
+            pool.shutdown();
+        }
+        try {
+            new RecipeHttpService(book, null);
+            fail("null executor should throw");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    // Helper methods
+    private static ConcurrentRecipeBook sampleBook() {
+        ConcurrentRecipeBook book = new ConcurrentRecipeBook();
+        Recipe bread = new Recipe("Garlic Bread", 2);
+        bread.addIngredient("bread", 1);
+        bread.addIngredient("butter (tbsp)", 1.5);
+        Recipe pancakes = new Recipe("Pancakes", 4);
+        pancakes.addIngredient("flour (cup)", 2);
+        pancakes.addIngredient("butter (tbsp)", 2);
+        book.addRecipe(bread);
+        book.addRecipe(pancakes);
+        book.addRecipe(new Recipe("Say \"Cheese\"", 1));
+        return book;
+    }
+
+    private static HttpResponse<String> get(String uri) throws Exception {
+        return CLIENT.send(HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,392 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the RecipeJournal class.
+ */
+public class RecipeJournalTest {
+    public static void main(String[] args) throws Exception {
+        testRecoverReplaysChanges();
+        testChangesDurableBeforeClose();
+        testInvalidChangesNotJournaled();
+        testTornTailDiscarded();
+        testDamagedRecordRejected();
+        testCompaction();
+        testBackgroundCompaction();
+        testBackgroundCompactionFailure();
+        testAddedRecipeCopied();
+        testConcurrentWriters();
+        testClosedJournalRejectsChanges();
+        System.out.println("All RecipeJournal tests passed.");
+    }
+
+    private static void testRecoverReplaysChanges() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            String expected;
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("empty directory", 0, journal.size());
+                journal.addRecipe(sampleRecipe("Pancakes"));
+                journal.addRecipe(sampleRecipe("Garlic Bread"));
+                journal.addRecipe(sampleRecipe("Soup"));
+                journal.addIngredient("Pancakes", "blueberries (cup)", 0.5);
+                journal.scaleToServings("Pancakes", 6);
+                journal.addIngredient("Pancakes", "maple syrup (tbsp)", 3);
+                assertTrue("removed", journal.removeRecipe("Garlic Bread"));
+                expected = render(journal.getAllRecipes());
+            }
+            try (RecipeJournal reopened = RecipeJournal.open(dir)) {
+                assertEquals("recovered", expected, render(reopened.getAllRecipes()));
+                assertEquals("scaled servings", 6, reopened.getRecipe("Pancakes").getServings());
+                assertTrue("searchable after replay", reopened.getRecipe("Soup") != null);
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testChangesDurableBeforeClose() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        RecipeJournal journal = RecipeJournal.open(dir);
+        try {
+            journal.addRecipe(sampleRecipe("Pancakes"));
+            journal.scaleToServings("Pancakes", 8);
+            // Read the directory while the writer is still open, as recovery after a crash would.
+            try (RecipeJournal recovered = RecipeJournal.open(dir)) {
+                assertEquals("recovered size", 1, recovered.size());
+                assertEquals("recovered servings", 8, recovered.getRecipe("Pancakes").getServings());
+            }
+        } finally {
+            journal.close();
+            deleteTree(dir);
+        }
+    }
+
+    private static void testInvalidChangesNotJournaled() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try (RecipeJournal journal = RecipeJournal.open(dir)) {
+            journal.addRecipe(sampleRecipe("Pancakes"));
+            long size = journal.journalSize();
+            expectIllegalArgument("missing recipe", () -> journal.addIngredient("Waffles", "flour", 1));
+            expectIllegalArgument("blank ingredient", () -> journal.addIngredient("Pancakes", " ", 1));
+            expectIllegalArgument("zero amount", () -> journal.addIngredient("Pancakes", "flour", 0));
+            expectIllegalArgument("bad servings", () -> journal.scaleToServings("Pancakes", 0));
+            expectIllegalArgument("missing scale target", () -> journal.scaleToServings("Waffles", 2));
+            expectIllegalArgument("null recipe", () -> journal.addRecipe(null));
+            assertTrue("missing remove", !journal.removeRecipe("Waffles"));
+            assertTrue("nothing appended", journal.journalSize() == size);
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testTornTailDiscarded() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                journal.addRecipe(sampleRecipe("Pancakes"));
+                journal.addRecipe(sampleRecipe("Waffles"));
+            }
+            Path log = dir.resolve("journal-0.log");
+            try (FileChannel file = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                file.truncate(file.size() - 5);
+            }
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("torn record dropped", 1, journal.size());
+                journal.addRecipe(sampleRecipe("Crepes"));
+            }
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("appends after recovery", "[Pancakes, Crepes]", names(journal.getAllRecipes()));
+            }
+
+            // Zero bytes after the last record, as a crash during a write can leave.
+            Files.write(log, new byte[64], StandardOpenOption.APPEND);
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("zero tail ignored", 2, journal.size());
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testDamagedRecordRejected() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                journal.addRecipe(sampleRecipe("Pancakes"));
+                journal.addRecipe(sampleRecipe("Waffles"));
+            }
+            Path log = dir.resolve("journal-0.log");
+            byte[] bytes = Files.readAllBytes(log);
+            bytes[8 + 8 + 3] ^= 0x40; // inside the first record's payload
+            Files.write(log, bytes);
+            try {
+                RecipeJournal.open(dir).close();
+                fail("damaged record should be rejected");
+            } catch (RecipeFormatException expected) {
+                assertTrue("message names the offset", expected.getMessage().contains("byte 8"));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testCompaction() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            String expected;
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                journal.setCompactionThreshold(0);
+                for (int i = 0; i < 100; i++) {
+                    journal.addRecipe(sampleRecipe("Dish " + i));
+                }
+                journal.scaleToServings("Dish 7", 9);
+                long before = journal.journalSize();
+                journal.compact();
+                assertTrue("journal emptied", journal.journalSize() < before);
+                assertEquals("files after compaction", "[journal-1.log, snapshot-1.bin]", listFiles(dir));
+
+                journal.removeRecipe("Dish 3");
+                journal.addIngredient("Dish 7", "salt (tsp)", 1);
+                expected = render(journal.getAllRecipes());
+            }
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("snapshot plus journal", expected, render(journal.getAllRecipes()));
+                journal.compact();
+            }
+            assertEquals("old generation removed", "[journal-2.log, snapshot-2.bin]", listFiles(dir));
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("snapshot only", expected, render(journal.getAllRecipes()));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testBackgroundCompaction() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            String expected;
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                journal.setCompactionThreshold(4096);
+                for (int i = 0; i < 500; i++) {
+                    journal.addRecipe(sampleRecipe("Dish " + i));
+                    if (i % 3 == 0) {
+                        journal.scaleToServings("Dish " + i, 1 + i % 7);
+                    }
+                }
+                expected = render(journal.getAllRecipes());
+            }
+            assertTrue("compacted in the background", listFiles(dir).contains("snapshot-"));
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("recovered after background compaction", expected, render(journal.getAllRecipes()));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testBackgroundCompactionFailure() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        // A non-empty directory where the first compaction's snapshot should go cannot be replaced.
+        Path blocked = dir.resolve("snapshot-1.bin");
+        try {
+            String expected;
+            RecipeJournal journal = RecipeJournal.open(dir);
+            try {
+                Files.createDirectory(blocked);
+                Files.createFile(blocked.resolve("keep"));
+                assertTrue("no failure yet", journal.getCompactionFailure() == null);
+                journal.setCompactionThreshold(1);
+                journal.addRecipe(sampleRecipe("Pancakes"));
+                expected = render(journal.getAllRecipes());
+            } finally {
+                journal.close(); // waits for the background compaction
+            }
+            assertTrue("failure kept", journal.getCompactionFailure() != null);
+
+            Files.delete(blocked.resolve("keep"));
+            Files.delete(blocked);
+            try (RecipeJournal reopened = RecipeJournal.open(dir)) {
+                assertEquals("nothing lost", expected, render(reopened.getAllRecipes()));
+                reopened.compact();
+                assertTrue("explicit compaction works again", listFiles(dir).contains("snapshot-2.bin"));
+            }
+        } finally {
+            if (Files.isDirectory(blocked)) {
+                Files.deleteIfExists(blocked.resolve("keep"));
+                Files.delete(blocked);
+            }
+            deleteTree(dir);
+        }
+    }
+
+    private static void testAddedRecipeCopied() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            String expected;
+            Recipe pancakes = sampleRecipe("Pancakes");
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                journal.addRecipe(pancakes);
+                expected = render(journal.getAllRecipes());
+                // Direct changes to the caller's recipe are not journaled, so the book must not see them either.
+                pancakes.addIngredient("sugar (tbsp)", 2);
+                pancakes.scaleToServings(8);
+                assertEquals("book unchanged", expected, render(journal.getAllRecipes()));
+                journal.scaleToServings("Pancakes", 2);
+                assertEquals("caller's recipe unchanged", 8, pancakes.getServings());
+                expected = render(journal.getAllRecipes());
+            }
+            try (RecipeJournal reopened = RecipeJournal.open(dir)) {
+                assertEquals("recovered", expected, render(reopened.getAllRecipes()));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testConcurrentWriters() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            int threads = 8;
+            int perThread = 100;
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                List<Thread> writers = new ArrayList<>();
+                List<Throwable> errors = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int id = t;
+                    Thread writer = new Thread(() -> {
+                        try {
+                            for (int i = 0; i < perThread; i++) {
+                                journal.addRecipe(sampleRecipe("T" + id + " dish " + i));
+                            }
+                        } catch (Throwable e) {
+                            synchronized (errors) {
+                                errors.add(e);
+                            }
+                        }
+                    });
+                    writers.add(writer);
+                    writer.start();
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+                assertTrue("no errors: " + errors, errors.isEmpty());
+                assertEquals("all added", threads * perThread, journal.size());
+                assertTrue("at most one sync per change", journal.syncCount() <= threads * perThread);
+            }
+            try (RecipeJournal journal = RecipeJournal.open(dir)) {
+                assertEquals("all recovered", threads * perThread, journal.size());
+                assertTrue("last of each writer", journal.getRecipe("T5 dish 99") != null);
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testClosedJournalRejectsChanges() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            RecipeJournal journal = RecipeJournal.open(dir);
+            journal.close();
+            journal.close();
+            try {
+                journal.addRecipe(sampleRecipe("Pancakes"));
+                fail("closed journal should reject changes");
+            } catch (IOException expected) {
+                // expected
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    // Helper methods
+    private interface Change {
+        void run() throws IOException;
+    }
+
+    private static Recipe sampleRecipe(String name) {
+        Recipe r = new Recipe(name, 4);
+        r.addIngredient("flour (cup)", 2);
+        r.addIngredient("eggs", 3);
+        r.addIngredient("milk (cup)", 1.0 / 3);
+        return r;
+    }
+
+    private static String render(List<Recipe> recipes) {
+        StringBuilder sb = new StringBuilder();
+        for (Recipe r : recipes) {
+            sb.append(r).append('\n');
+            for (int i = 0; i < r.totalIngredientCount(); i++) {
+                // Exact amounts, not just the two displayed decimals.
+                sb.append(r.getIngredientAmount(i)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String names(List<Recipe> recipes) {
+        List<String> names = new ArrayList<>();
+        for (Recipe r : recipes) {
+            names.add(r.getName());
+        }
+        return names.toString();
+    }
+
+    private static String listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<String> names = new ArrayList<>();
+            files.forEach(f -> names.add(f.getFileName().toString()));
+            names.sort(null);
+            return names.toString();
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static void expectIllegalArgument(String label, Change change) throws IOException {
+        try {
+            change.run();
+            fail(label + " should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the RecipeJsonReader class.
+ */
+public class RecipeJsonReaderTest {
+    public static void main(String[] args) throws Exception {
+        testReadDocument();
+        testRoundTrip();
+        testUnknownFieldsIgnored();
+        testDeeplyNestedUnknownField();
+        testStringEscapes();
+        testValidationFailures();
+        testMalformedJson();
+        testForEachStreams();
+        System.out.println("All RecipeJsonReader tests passed.");
+    }
+
+    private static void testReadDocument() throws Exception {
+        String json = "{ \"recipes\": [\n"
+            + "  { \"name\": \"Pancakes\", \"servings\": 4, \"ingredients\": [\n"
+            + "      { \"name\": \"Flour\", \"amount\": 2.5 },\n"
+            + "      { \"name\": \"Sugar\", \"amount\": 1.0 } ] },\n"
+            + "  { \"ingredients\": [], \"servings\": 1, \"name\": \"Water\" }\n"
+            + "] }";
+        RecipeBook book = new RecipeJsonReader().read(channel(json));
+
+        assertEquals("recipe count", 2, book.size());
+        Recipe pancakes = book.getAllRecipes().get(0);
+        assertEquals("first recipe", "Pancakes", pancakes.getName());
+        assertEquals("servings", 4, pancakes.getServings());
+        assertEquals("ingredient count", 2, pancakes.totalIngredientCount());
+        assertEquals("ingredient order", "Sugar", pancakes.getIngredientName(1));
+        assertTrue("amount", pancakes.getIngredientAmount(0) == 2.5);
+        assertEquals("fields in any order", "Water", book.getAllRecipes().get(1).getName());
+    }
+
+    private static void testRoundTrip() throws Exception {
+        RecipeBook original = new RecipeBook();
+        for (int i = 0; i < 200; i++) {
+            Recipe r = new Recipe("Recipe " + i + " \u00e9\u20ac\ud83c\udf70", 3);
+            for (int j = 0; j < 4; j++) {
+                r.addIngredient("ingredient \"" + j + "\"", 100.0 / (j + 3));
+            }
+            r.scaleToServings(7);
+            original.addRecipe(r);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new RecipeJsonWriter().write(original, Channels.newChannel(bytes));
+        RecipeBook loaded = new RecipeJsonReader().read(
+            Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        List<Recipe> a = original.getAllRecipes();
+        List<Recipe> b = loaded.getAllRecipes();
+        assertEquals("round trip size", a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals("round trip name", a.get(i).getName(), b.get(i).getName());
+            assertEquals("round trip servings", a.get(i).getServings(), b.get(i).getServings());
+            for (int j = 0; j < a.get(i).totalIngredientCount(); j++) {
+                assertEquals("round trip ingredient", a.get(i).getIngredientName(j), b.get(i).getIngredientName(j));
+                assertTrue("round trip amount is exact",
+                    a.get(i).getIngredientAmount(j) == b.get(i).getIngredientAmount(j));
+            }
+        }
+    }
+
+    private static void testUnknownFieldsIgnored() throws Exception {
+        String json = "{ \"version\": 2, \"meta\": { \"tags\": [1, true, null, \"x\", {}] },"
+            + " \"recipes\": [ { \"id\": -1.5e3, \"name\": \"Toast\", \"servings\": 1,"
+            + " \"ingredients\": [ { \"name\": \"bread\", \"amount\": 2, \"note\": [[]] } ] } ] }";
+        RecipeBook book = new RecipeJsonReader().read(channel(json));
+        assertEquals("extra fields ignored", 1, book.size());
+        assertEquals("ingredient read", "bread", book.getAllRecipes().get(0).getIngredientName(0));
+    }
+
+    private static void testDeeplyNestedUnknownField() throws Exception {
+        int depth = 200_000;
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            nested.append(i % 2 == 0 ? "[" : "{\"k\": ");
+        }
+        nested.append("1");
+        for (int i = depth - 1; i >= 0; i--) {
+            nested.append(i % 2 == 0 ? "]" : "}");
+        }
+        RecipeBook book = new RecipeJsonReader().read(channel("{\"extra\": " + nested + ", \"recipes\": []}"));
+        assertEquals("deep unknown field skipped", 0, book.size());
+
+        String unclosed = nested.substring(0, nested.length() - 10);
+        assertRejected("deep unknown field unterminated", "{\"extra\": " + unclosed, "expected", -1);
+    }
+
+    private static void testStringEscapes() throws Exception {
+        String json = "{\"recipes\":[{\"name\":\"Cr\\u00e8me \\\"Br\\u00fbl\\u00e9e\\\"\\n\\/\","
+            + "\"servings\":2,\"ingredients\":[]}]}";
+        RecipeBook book = new RecipeJsonReader().read(channel(json));
+        assertEquals("escapes decoded", "Cr\u00e8me \"Br\u00fbl\u00e9e\"\n/", book.getAllRecipes().get(0).getName());
+    }
+
+    private static void testValidationFailures() throws Exception {
+        String ok = "{ \"name\": \"Ok\", \"servings\": 1, \"ingredients\": [] }";
+        assertRejected("missing recipes", "{}", "missing \"recipes\"", -1);
+        assertRejected("missing name", "{\"recipes\":[" + ok + ", {\"servings\": 1, \"ingredients\": []}]}",
+            "missing \"name\"", 1);
+        assertRejected("blank name", "{\"recipes\":[{\"name\": \"  \", \"servings\": 1, \"ingredients\": []}]}",
+            "invalid \"name\"", 0);
+        assertRejected("Unicode blank name",
+            "{\"recipes\":[" + ok + ", {\"name\": \"\\u2003\\u3000\", \"servings\": 1, \"ingredients\": []}]}",
+            "invalid \"name\"", 1);
+        assertRejected("null name", "{\"recipes\":[{\"name\": null, \"servings\": 1, \"ingredients\": []}]}",
+            "invalid \"name\"", 0);
+        assertRejected("missing servings", "{\"recipes\":[{\"name\": \"A\", \"ingredients\": []}]}",
+            "missing \"servings\"", 0);
+        assertRejected("fractional servings", "{\"recipes\":[{\"name\": \"A\", \"servings\": 2.5, \"ingredients\": []}]}",
+            "invalid \"servings\"", 0);
+        assertRejected("zero servings", "{\"recipes\":[{\"name\": \"A\", \"servings\": 0, \"ingredients\": []}]}",
+            "invalid \"servings\"", 0);
+        assertRejected("string servings", "{\"recipes\":[{\"name\": \"A\", \"servings\": \"2\", \"ingredients\": []}]}",
+            "invalid \"servings\"", 0);
+        assertRejected("missing ingredients", "{\"recipes\":[{\"name\": \"A\", \"servings\": 2}]}",
+            "missing \"ingredients\"", 0);
+        assertRejected("negative amount",
+            "{\"recipes\":[" + ok + "," + ok + ",{\"name\": \"A\", \"servings\": 2, \"ingredients\": ["
+                + "{\"name\": \"salt\", \"amount\": 1}, {\"name\": \"sugar\", \"amount\": -1}]}]}",
+            "ingredient 1 \"amount\"", 2);
+        assertRejected("missing ingredient name",
+            "{\"recipes\":[{\"name\": \"A\", \"servings\": 2, \"ingredients\": [{\"amount\": 1}]}]}",
+            "ingredient 0: missing \"name\"", 0);
+    }
+
+    private static void testMalformedJson() throws Exception {
+        assertRejected("truncated", "{\"recipes\":[{\"name\": \"A\"", "expected", 0);
+        assertRejected("trailing comma", "{\"recipes\":[]},", "unexpected content", -1);
+        assertRejected("unbalanced", "{\"recipes\":[]]}", "expected '}'", -1);
+        assertRejected("bad literal", "{\"x\": tru, \"recipes\": []}", "invalid literal", -1);
+        assertRejected("leading zero", "{\"recipes\":[{\"name\": \"A\", \"servings\": 01, \"ingredients\": []}]}",
+            "malformed number", 0);
+        assertRejected("unterminated string", "{\"recipes\":[{\"name\": \"A", "unterminated string", 0);
+        assertRejected("not an object", "[]", "expected '{'", -1);
+
+        try {
+            new RecipeJsonReader().read(channel("{\"recipes\":[]}\n\n  x"));
+            fail("garbage after document should be rejected");
+        } catch (RecipeFormatException expected) {
+            assertTrue("error reports line: " + expected.getMessage(), expected.getMessage().contains("line 3"));
+        }
+    }
+
+    private static void testForEachStreams() throws Exception {
+        StringBuilder json = new StringBuilder("{\"recipes\":[");
+        for (int i = 0; i < 5000; i++) {
+            json.append(i == 0 ? "" : ",")
+                .append("{\"name\":\"R").append(i).append("\",\"servings\":1,\"ingredients\":[")
+                .append("{\"name\":\"egg\",\"amount\":").append(i + 1).append("}]}");
+        }
+        json.append("]}");
+
+        List<String> seen = new ArrayList<>();
+        int count = new RecipeJsonReader().forEach(channel(json.toString()), r -> seen.add(r.getName()));
+        assertEquals("forEach count", 5000, count);
+        assertEquals("forEach order first", "R0", seen.get(0));
+        assertEquals("forEach order last", "R4999", seen.get(4999));
+    }
+
+    // Helper methods
+    private static ReadableByteChannel channel(String json) {
+        return Channels.newChannel(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertRejected(String label, String json, String reason, int recipeIndex) throws Exception {
+        try {
+            new RecipeJsonReader().read(channel(json));
+            fail(label + " should be rejected");
+        } catch (RecipeFormatException expected) {
+            if (!expected.getMessage().contains(reason)) {
+                fail(label + " expected reason '" + reason + "' but was '" + expected.getMessage() + "'");
+            }
+            assertEquals(label + " recipe index", recipeIndex, expected.getRecipeIndex());
+        }
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
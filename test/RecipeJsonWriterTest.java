@@ -0,0 +1,138 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the RecipeJsonWriter class.
+ */
+public class RecipeJsonWriterTest {
+    public static void main(String[] args) throws Exception {
+        testWriteBook();
+        testWriteEmptyBook();
+        testEscapingAndUnicode();
+        testFullPrecisionAmounts();
+        testSmallBufferMatchesLargeBuffer();
+        testWriteToFile();
+        System.out.println("All RecipeJsonWriter tests passed.");
+    }
+
+    private static void testWriteBook() throws Exception {
+        RecipeBook book = new RecipeBook();
+        Recipe pancakes = new Recipe("Pancakes", 4);
+        pancakes.addIngredient("Flour", 2.5);
+        pancakes.addIngredient("Eggs", 2);
+        book.addRecipe(pancakes);
+        book.addRecipe(new Recipe("Water", 1));
+
+        String expected = "{\n"
+            + "  \"recipes\": [\n"
+            + "    {\n"
+            + "      \"name\": \"Pancakes\",\n"
+            + "      \"servings\": 4,\n"
+            + "      \"ingredients\": [\n"
+            + "        { \"name\": \"Flour\", \"amount\": 2.5 },\n"
+            + "        { \"name\": \"Eggs\", \"amount\": 2 }\n"
+            + "      ]\n"
+            + "    },\n"
+            + "    {\n"
+            + "      \"name\": \"Water\",\n"
+            + "      \"servings\": 1,\n"
+            + "      \"ingredients\": []\n"
+            + "    }\n"
+            + "  ]\n"
+            + "}\n";
+        assertEquals("book JSON", expected, writeToString(book, RecipeJsonWriter.DEFAULT_BUFFER_SIZE));
+    }
+
+    private static void testWriteEmptyBook() throws Exception {
+        assertEquals("empty book JSON", "{\n  \"recipes\": []\n}\n",
+            writeToString(new RecipeBook(), RecipeJsonWriter.DEFAULT_BUFFER_SIZE));
+    }
+
+    private static void testEscapingAndUnicode() throws Exception {
+        RecipeBook book = new RecipeBook();
+        Recipe r = new Recipe("Cr\u00e8me \"Br\u00fbl\u00e9e\" \\ \u2615 \ud83c\udf70", 2);
+        r.addIngredient("line\nbreak\ttab\u0001", 1);
+        book.addRecipe(r);
+
+        String json = writeToString(book, RecipeJsonWriter.DEFAULT_BUFFER_SIZE);
+        assertContains("escaped name", json,
+            "\"name\": \"Cr\u00e8me \\\"Br\u00fbl\u00e9e\\\" \\\\ \u2615 \ud83c\udf70\"");
+        assertContains("escaped controls", json, "\"line\\nbreak\\ttab\\u0001\"");
+    }
+
+    private static void testFullPrecisionAmounts() throws Exception {
+        RecipeBook book = new RecipeBook();
+        Recipe r = new Recipe("Thirds", 3);
+        r.addIngredient("sugar", 100);
+        r.scaleToServings(1);
+        book.addRecipe(r);
+
+        String json = writeToString(book, RecipeJsonWriter.DEFAULT_BUFFER_SIZE);
+        String amount = json.substring(json.indexOf("\"amount\": ") + 10, json.indexOf(" }"));
+        assertTrue("amount is not rounded", Double.parseDouble(amount) == r.getIngredientAmount(0));
+    }
+
+    private static void testSmallBufferMatchesLargeBuffer() throws Exception {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < 50; i++) {
+            Recipe r = new Recipe("Recipe \u00e9\u20ac" + i, i + 1);
+            for (int j = 0; j < 5; j++) {
+                r.addIngredient("ingredient " + j, (i + 1) * 0.37 + j);
+            }
+            book.addRecipe(r);
+        }
+        assertEquals("64-byte buffer output", writeToString(book, RecipeJsonWriter.DEFAULT_BUFFER_SIZE),
+            writeToString(book, 64));
+    }
+
+    private static void testWriteToFile() throws Exception {
+        RecipeBook book = new RecipeBook();
+        book.addRecipe(new Recipe("Toast", 1));
+        Path dir = Files.createTempDirectory("recipes");
+        Path file = dir.resolve("recipes.json");
+        try {
+            Files.writeString(file, "old contents");
+            new RecipeJsonWriter().write(book, file);
+            assertEquals("file contents", writeToString(book, RecipeJsonWriter.DEFAULT_BUFFER_SIZE),
+                Files.readString(file, StandardCharsets.UTF_8));
+            try (var files = Files.list(dir)) {
+                assertTrue("no temporary files left", files.count() == 1);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // Helper methods
+    private static String writeToString(RecipeBook book, int bufferSize) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new RecipeJsonWriter(bufferSize).write(book, Channels.newChannel(bytes));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertContains(String label, String text, String part) {
+        if (!text.contains(part)) {
+            fail(label + " expected to contain '" + part + "' in '" + text + "'");
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
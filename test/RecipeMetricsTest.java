@@ -0,0 +1,180 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+/**
+ * Tests for the RecipeMetrics class.
+ */
+public class RecipeMetricsTest {
+    public static void main(String[] args) throws Exception {
+        testDisabledRecordsNothing();
+        testOperationsRecorded();
+        testHistogramBuckets();
+        testPercentiles();
+        testConcurrentRecording();
+        testMBean();
+        System.out.println("All RecipeMetrics tests passed.");
+    }
+
+    private static void testDisabledRecordsNothing() {
+        RecipeMetrics.setEnabled(false);
+        RecipeMetrics.reset();
+        RecipeBook book = new RecipeBook();
+        book.addRecipe(new Recipe("Pancakes", 2));
+        book.searchByName("pan");
+
+        for (RecipeMetrics.OperationStats stats : RecipeMetrics.snapshot()) {
+            assertEquals("nothing recorded for " + stats.getOperation(), 0, stats.getCount());
+        }
+    }
+
+    private static void testOperationsRecorded() {
+        RecipeMetrics.reset();
+        RecipeMetrics.setEnabled(true);
+        try {
+            RecipeBook book = new RecipeBook();
+            Recipe pancakes = new Recipe("Pancakes", 2);
+            pancakes.addIngredient("flour", 1);
+            pancakes.addIngredient("milk", 1);
+            book.addRecipe(pancakes);
+            book.addRecipe(new Recipe("Pasta", 2));
+            book.addRecipe(new Recipe("Soup", 2));
+            book.removeRecipe("Soup");
+            book.searchByName("pa");
+            book.searchByIngredient("milk");
+            book.search("pancakes flour");
+            RecipeSorter.sortByName(book.getAllRecipes());
+            RecipeSorter.topByName(book.getAllRecipes(), 1, true);
+            pancakes.scaleToServings(4);
+        } finally {
+            RecipeMetrics.setEnabled(false);
+        }
+
+        assertStats(RecipeMetrics.Operation.ADD_RECIPE, 3, 3);
+        assertStats(RecipeMetrics.Operation.REMOVE_RECIPE, 1, 2);
+        assertStats(RecipeMetrics.Operation.SEARCH_BY_NAME, 1, 2);
+        assertStats(RecipeMetrics.Operation.SEARCH_BY_INGREDIENT, 1, 1);
+        assertStats(RecipeMetrics.Operation.SEARCH, 1, 1);
+        assertStats(RecipeMetrics.Operation.SORT_BY_NAME, 1, 2);
+        assertStats(RecipeMetrics.Operation.TOP_BY_NAME, 1, 2);
+        assertStats(RecipeMetrics.Operation.SCALE_TO_SERVINGS, 1, 2);
+
+        RecipeMetrics.OperationStats add = RecipeMetrics.snapshot(RecipeMetrics.Operation.ADD_RECIPE);
+        assertTrue("max at least mean", add.getMaxNanos() >= add.getMeanNanos());
+        assertTrue("p99 at most max", add.getPercentileNanos(99) <= add.getMaxNanos());
+
+        RecipeMetrics.reset();
+        assertEquals("reset", 0, RecipeMetrics.snapshot(RecipeMetrics.Operation.ADD_RECIPE).getCount());
+    }
+
+    private static void testHistogramBuckets() {
+        long[] samples = {0, 1, 15, 16, 17, 31, 32, 33, 100, 1000, 123456, 987654321L, 1L << 39, Long.MAX_VALUE};
+        int previous = -1;
+        for (long value : samples) {
+            int bucket = LatencyHistogram.bucketFor(value);
+            assertTrue("buckets increase with value " + value, bucket >= previous);
+            previous = bucket;
+            if (value < (1L << 40)) {
+                long high = LatencyHistogram.highestValueIn(bucket);
+                assertTrue("value " + value + " within its bucket", value <= high);
+                assertTrue("bucket of " + value + " is narrow", high - value <= Math.max(1, value / 16));
+            }
+        }
+        for (long value = 0; value < 5000; value++) {
+            int bucket = LatencyHistogram.bucketFor(value);
+            assertTrue("highest value maps back for " + value,
+                LatencyHistogram.bucketFor(LatencyHistogram.highestValueIn(bucket)) == bucket);
+        }
+    }
+
+    private static void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+        long[] counts = h.bucketCounts();
+        assertNear("p50", 500_000, LatencyHistogram.valueAtPercentile(counts, 50));
+        assertNear("p99", 990_000, LatencyHistogram.valueAtPercentile(counts, 99));
+        assertNear("p100", 1_000_000, LatencyHistogram.valueAtPercentile(counts, 100));
+        assertEquals("count", 1000, h.count());
+        assertEquals("max", 1_000_000, h.maxNanos());
+        assertEquals("empty", 0, LatencyHistogram.valueAtPercentile(new LatencyHistogram().bucketCounts(), 50));
+    }
+
+    private static void testConcurrentRecording() throws Exception {
+        LatencyHistogram h = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    h.record(i % 5000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("no lost counts", 800_000, h.count());
+        long total = 0;
+        for (long c : h.bucketCounts()) {
+            total += c;
+        }
+        assertEquals("no lost bucket counts", 800_000, total);
+    }
+
+    private static void testMBean() throws Exception {
+        RecipeMetrics.registerMBean();
+        RecipeMetrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(RecipeMetrics.OBJECT_NAME);
+        assertTrue("registered", server.isRegistered(name));
+
+        server.setAttribute(name, new Attribute("Enabled", true));
+        assertTrue("enabled over JMX", RecipeMetrics.isEnabled());
+        new Recipe("Scaled", 2).scaleToServings(3);
+        RecipeMetrics.setEnabled(false);
+
+        Object counts = server.getAttribute(name, "Counts");
+        assertTrue("counts exposed as tabular data", counts instanceof TabularData);
+        Map<String, Long> proxyCounts = JMX.newMXBeanProxy(server, name, RecipeMetricsMXBean.class)
+            .getCounts();
+        assertEquals("count over JMX", 1, proxyCounts.get("SCALE_TO_SERVINGS"));
+    }
+
+    // Helper methods
+    private static void assertStats(RecipeMetrics.Operation op, long count, long lastSize) {
+        RecipeMetrics.OperationStats stats = RecipeMetrics.snapshot(op);
+        assertEquals(op + " count", count, stats.getCount());
+        assertEquals(op + " size", lastSize, stats.getLastSize());
+    }
+
+    private static void assertNear(String label, long expected, long actual) {
+        if (Math.abs(expected - actual) > expected / 16) {
+            fail(label + " expected about " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertEquals(String label, long expected, long actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the RecipeSnapshot class.
+ */
+public class RecipeSnapshotTest {
+    public static void main(String[] args) throws Exception {
+        testRoundTrip();
+        testEmptyBook();
+        testSharedNamesStoredOnce();
+        testIndexChecks();
+        testRejectsCorruptFiles();
+        System.out.println("All RecipeSnapshot tests passed.");
+    }
+
+    private static void testRoundTrip() throws Exception {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < 500; i++) {
+            Recipe r = new Recipe("Recipe " + i + " Cr\u00e8me \ud83c\udf70", 3);
+            for (int j = 0; j < i % 7; j++) {
+                r.addIngredient("ingredient " + (j * 31 % 11), 100.0 / (j + 3));
+            }
+            r.scaleToServings(5);
+            book.addRecipe(r);
+        }
+
+        Path file = Files.createTempFile("recipes", ".snap");
+        try {
+            RecipeSnapshot.write(book, file);
+            RecipeSnapshot snapshot = RecipeSnapshot.open(file);
+            assertEquals("size", 500, snapshot.size());
+
+            List<Recipe> expected = book.getAllRecipes();
+            int ingredients = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                Recipe a = expected.get(i);
+                RecipeSnapshot.Entry b = snapshot.get(i);
+                assertEquals("name", a.getName(), b.getName());
+                assertEquals("servings", a.getServings(), b.getServings());
+                assertEquals("ingredient count", a.totalIngredientCount(), b.totalIngredientCount());
+                for (int j = 0; j < a.totalIngredientCount(); j++) {
+                    assertEquals("ingredient name", a.getIngredientName(j), b.getIngredientName(j));
+                    assertTrue("amount is exact", a.getIngredientAmount(j) == b.getIngredientAmount(j));
+                }
+                ingredients += a.totalIngredientCount();
+            }
+            assertEquals("total ingredients", ingredients, snapshot.totalIngredientCount());
+
+            RecipeBook loaded = snapshot.toRecipeBook();
+            assertEquals("converted size", 500, loaded.size());
+            assertEquals("converted text", expected.get(42).toString(), loaded.getAllRecipes().get(42).toString());
+            assertEquals("entries view", expected.get(499).getName(), snapshot.entries().get(499).getName());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void testEmptyBook() throws Exception {
+        Path file = Files.createTempFile("empty", ".snap");
+        try {
+            RecipeSnapshot.write(new RecipeBook(), file);
+            RecipeSnapshot snapshot = RecipeSnapshot.open(file);
+            assertEquals("empty size", 0, snapshot.size());
+            assertEquals("empty entries", 0, snapshot.entries().size());
+            assertEquals("empty book", 0, snapshot.toRecipeBook().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void testSharedNamesStoredOnce() throws Exception {
+        RecipeBook few = new RecipeBook();
+        RecipeBook many = new RecipeBook();
+        for (int i = 0; i < 101; i++) {
+            Recipe r = new Recipe("Same", 1);
+            r.addIngredient("a rather long ingredient name", 1);
+            if (i == 0) {
+                few.addRecipe(r);
+            }
+            many.addRecipe(r);
+        }
+        // Each extra recipe costs its table entry, a name id and an amount, not the strings.
+        assertEquals("names stored once", 100 * (16 + 4 + 8), size(many) - size(few));
+    }
+
+    private static void testIndexChecks() throws Exception {
+        RecipeBook book = new RecipeBook();
+        Recipe r = new Recipe("One", 1);
+        r.addIngredient("salt", 1);
+        book.addRecipe(r);
+        Path file = Files.createTempFile("one", ".snap");
+        try {
+            RecipeSnapshot.write(book, file);
+            RecipeSnapshot snapshot = RecipeSnapshot.open(file);
+            try {
+                snapshot.get(1);
+                fail("recipe index past the end should be rejected");
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+            try {
+                snapshot.get(0).getIngredientAmount(1);
+                fail("ingredient index past the end should be rejected");
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void testRejectsCorruptFiles() throws Exception {
+        Path file = Files.createTempFile("bad", ".snap");
+        try {
+            Files.write(file, "{\"recipes\": []}".getBytes("UTF-8"));
+            assertRejected("json file", file);
+
+            Files.write(file, new byte[0]);
+            assertRejected("empty file", file);
+
+            RecipeBook book = new RecipeBook();
+            book.addRecipe(new Recipe("A", 1));
+            RecipeSnapshot.write(book, file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertRejected("truncated file", file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Helper methods
+    private static int size(RecipeBook book) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RecipeSnapshot.write(book, Channels.newChannel(bytes));
+        return bytes.size();
+    }
+
+    private static void assertRejected(String label, Path file) throws Exception {
+        try {
+            RecipeSnapshot.open(file);
+            fail(label + " should be rejected");
+        } catch (RecipeFormatException expected) {
+            // expected
+        }
+    }
+
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -5,15 +5,20 @@ import java.util.List;
  * Tests for the RecipeSorter class.
  */
 public class RecipeSorterTest {
-    public static void main(String[] args) throws Exception {
+    public static void main(String[] args) {
         testSortByName();
         testSortByNameCaseInsensitive();
         testSortByNameDoesNotMutate();
         testSortByNameNullInput();
+        testSortByNameDescending();
+        testSortByNameTieBreak();
+        testParallelSortMatchesSequential();
+        testTopByNameMatchesFullSort();
+        testPageByName();
         System.out.println("All RecipeSorter tests passed.");
     }
 
-    private static void testSortByName() throws Exception {
+    private static void testSortByName() {
         List<Recipe> recipes = new ArrayList<>();
         recipes.add(new Recipe("Zebra Cake", 8));
         recipes.add(new Recipe("Apple Pie", 6));
@@ -27,7 +32,7 @@ public class RecipeSorterTest {
         assertEquals("third recipe", "Zebra Cake", getRecipeName(sorted.get(2)));
     }
 
-    private static void testSortByNameCaseInsensitive() throws Exception {
+    private static void testSortByNameCaseInsensitive() {
         List<Recipe> recipes = new ArrayList<>();
         recipes.add(new Recipe("banana bread", 1));
         recipes.add(new Recipe("Apple Tart", 1));
@@ -40,7 +45,7 @@ public class RecipeSorterTest {
         assertEquals("case-insensitive third", "Cherry Pie", getRecipeName(sorted.get(2)));
     }
 
-    private static void testSortByNameDoesNotMutate() throws Exception {
+    private static void testSortByNameDoesNotMutate() {
         List<Recipe> recipes = new ArrayList<>();
         recipes.add(new Recipe("Zebra", 1));
         recipes.add(new Recipe("Apple", 1));
@@ -59,11 +64,138 @@ public class RecipeSorterTest {
         assertEquals("null input returns empty", 0, sorted.size());
     }
 
+    private static void testSortByNameDescending() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("banana bread", 1));
+        recipes.add(new Recipe("Apple Tart", 1));
+        recipes.add(new Recipe("Cherry Pie", 1));
+
+        List<Recipe> sorted = RecipeSorter.sortByName(recipes, false);
+
+        assertEquals("descending first", "Cherry Pie", getRecipeName(sorted.get(0)));
+        assertEquals("descending second", "banana bread", getRecipeName(sorted.get(1)));
+        assertEquals("descending third", "Apple Tart", getRecipeName(sorted.get(2)));
+    }
+
+    private static void testSortByNameTieBreak() {
+        Recipe lowerFirst = new Recipe("soup", 1);
+        Recipe upper = new Recipe("Soup", 2);
+        Recipe lowerSecond = new Recipe("soup", 3);
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(lowerFirst);
+        recipes.add(upper);
+        recipes.add(lowerSecond);
+
+        List<Recipe> asc = RecipeSorter.sortByName(recipes, true);
+        assertSame("ascending exact-name tie break", upper, asc.get(0));
+        assertSame("ascending keeps input order [1]", lowerFirst, asc.get(1));
+        assertSame("ascending keeps input order [2]", lowerSecond, asc.get(2));
+
+        List<Recipe> desc = RecipeSorter.sortByName(recipes, false);
+        assertSame("descending exact-name tie break", lowerFirst, desc.get(0));
+        assertSame("descending keeps input order", lowerSecond, desc.get(1));
+        assertSame("descending last", upper, desc.get(2));
+    }
+
+    private static void testParallelSortMatchesSequential() {
+        List<Recipe> recipes = new ArrayList<>();
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < RecipeSorter.PARALLEL_THRESHOLD * 2; i++) {
+            String name = "Recipe " + random.nextInt(500);
+            recipes.add(new Recipe(random.nextBoolean() ? name : name.toUpperCase(), 1));
+        }
+
+        List<Recipe> sorted = RecipeSorter.sortByName(recipes);
+        assertEquals("parallel sorted size", recipes.size(), sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            Recipe prev = sorted.get(i - 1);
+            Recipe cur = sorted.get(i);
+            int c = prev.getName().compareToIgnoreCase(cur.getName());
+            if (c == 0) {
+                c = prev.getName().compareTo(cur.getName());
+            }
+            if (c == 0) {
+                c = Integer.compare(indexOf(recipes, prev), indexOf(recipes, cur));
+            }
+            if (c > 0) {
+                fail("parallel sort out of order at " + i);
+            }
+        }
+    }
+
+    private static void testTopByNameMatchesFullSort() {
+        List<Recipe> recipes = new ArrayList<>();
+        java.util.Random random = new java.util.Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String name = "Recipe " + random.nextInt(100);
+            recipes.add(new Recipe(random.nextBoolean() ? name : name.toUpperCase(), 1));
+        }
+
+        for (boolean ascending : new boolean[] {true, false}) {
+            List<Recipe> sorted = RecipeSorter.sortByName(recipes, ascending);
+            for (int k : new int[] {0, 1, 10, 333, 2000, 5000}) {
+                List<Recipe> top = RecipeSorter.topByName(recipes, k, ascending);
+                assertEquals("top size", Math.min(k, recipes.size()), top.size());
+                for (int i = 0; i < top.size(); i++) {
+                    assertSame("top " + k + " matches full sort at " + i, sorted.get(i), top.get(i));
+                }
+            }
+        }
+        assertEquals("top of null", 0, RecipeSorter.topByName(null, 5).size());
+        try {
+            RecipeSorter.topByName(recipes, -1);
+            fail("negative k should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void testPageByName() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            recipes.add(new Recipe("Dish " + (i * 37 % 95), 1));
+        }
+        List<Recipe> sorted = RecipeSorter.sortByName(recipes);
+
+        List<Recipe> collected = new ArrayList<>();
+        for (int offset = 0; offset < recipes.size(); offset += 10) {
+            collected.addAll(RecipeSorter.pageByName(recipes, offset, 10));
+        }
+        assertEquals("pages cover list", recipes.size(), collected.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertSame("page order at " + i, sorted.get(i), collected.get(i));
+        }
+        assertEquals("last page clipped", 5, RecipeSorter.pageByName(recipes, 90, 10).size());
+        assertEquals("page past end", 0, RecipeSorter.pageByName(recipes, 100, 10).size());
+        assertEquals("huge limit", 95, RecipeSorter.pageByName(recipes, 0, Integer.MAX_VALUE).size());
+        assertSame("descending page", RecipeSorter.sortByName(recipes, false).get(20),
+            RecipeSorter.pageByName(recipes, 20, 5, false).get(0));
+        try {
+            RecipeSorter.pageByName(recipes, -1, 10);
+            fail("negative offset should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
     // Helper methods
-    private static String getRecipeName(Recipe recipe) throws ReflectiveOperationException {
-        java.lang.reflect.Field nameField = Recipe.class.getDeclaredField("name");
-        nameField.setAccessible(true);
-        return (String) nameField.get(recipe);
+    private static String getRecipeName(Recipe recipe) {
+        return recipe.getName();
+    }
+
+    private static int indexOf(List<Recipe> recipes, Recipe recipe) {
+        for (int i = 0; i < recipes.size(); i++) {
+            if (recipes.get(i) == recipe) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertSame(String label, Object expected, Object actual) {
+        if (expected != actual) {
+            fail(label + " expected same instance");
+        }
     }
 
     private static void assertEquals(String label, String expected, String actual) {
@@ -10,6 +10,9 @@ public class RecipeTest {
         testFormatAmount();
         testToPrettyString();
         testScaleEdgeCases();
+        testIngredientAccessors();
+        testRepeatedScalingDoesNotDrift();
+        testBakeAndAddWhileScaled();
         System.out.println("All Recipe tests passed.");
     }
 
@@ -40,6 +43,67 @@ public class RecipeTest {
         assertEquals("sugar amount after scaling back 1->3", 100.0, amounts.get(0), 1e-9);
     }
 
+    private static void testRepeatedScalingDoesNotDrift() {
+        Recipe r = new Recipe("Drift", 3);
+        r.addIngredient("flour", 0.1);
+        r.addIngredient("sugar", 100.0 / 7);
+        for (int i = 0; i < 10000; i++) {
+            r.scaleToServings(7 + i % 11);
+        }
+        r.scaleToServings(3);
+        assertTrue("amount restored exactly", r.getIngredientAmount(0) == 0.1);
+        assertTrue("amount restored exactly", r.getIngredientAmount(1) == 100.0 / 7);
+    }
+
+    private static void testBakeAndAddWhileScaled() {
+        Recipe r = new Recipe("Bake", 2);
+        r.addIngredient("flour", 200.0);
+        r.scaleToServings(4);
+        r.addIngredient("salt", 1.0);
+        assertEquals("existing amount kept", 400.0, r.getIngredientAmount(0), 1e-9);
+        assertTrue("added at current servings", r.getIngredientAmount(1) == 1.0);
+
+        r.scaleToServings(2);
+        assertEquals("both scale after add", 200.0, r.getIngredientAmount(0), 1e-9);
+        assertEquals("both scale after add", 0.5, r.getIngredientAmount(1), 1e-9);
+
+        r.scaleToServings(6);
+        String before = r.toString();
+        double amount = r.getIngredientAmount(0);
+        r.bake();
+        assertEquals("bake keeps text", before, r.toString());
+        assertTrue("bake keeps amount", r.getIngredientAmount(0) == amount);
+        r.scaleToServings(3);
+        assertEquals("scaling after bake", 300.0, r.getIngredientAmount(0), 1e-9);
+    }
+
+    private static void testIngredientAccessors() {
+        Recipe r = new Recipe("Many", 2);
+        for (int i = 0; i < 100; i++) {
+            r.addIngredient("item " + i, i + 0.5);
+        }
+        r.scaleToServings(4);
+
+        assertEquals("count after growth", 100, r.totalIngredientCount());
+        assertEquals("first name", "item 0", r.getIngredientName(0));
+        assertEquals("last name", "item 99", r.getIngredientName(99));
+        assertEquals("first amount scaled", 1.0, r.getIngredientAmount(0), 1e-9);
+        assertEquals("last amount scaled", 199.0, r.getIngredientAmount(99), 1e-9);
+
+        try {
+            r.getIngredientAmount(100);
+            fail("getIngredientAmount should reject an index past the end");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+        try {
+            r.getIngredientName(-1);
+            fail("getIngredientName should reject a negative index");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+
     private static void testTotalIngredientCount() {
         Recipe r = new Recipe("Test", 2);
         r.addIngredient("A", 1.0);
@@ -87,11 +151,12 @@ public class RecipeTest {
         return (String) m.invoke(r, value);
     }
 
-    @SuppressWarnings("unchecked")
-    private static List<Double> getIngredientAmounts(Recipe r) throws Exception {
-        Field f = Recipe.class.getDeclaredField("ingredientAmounts");
-        f.setAccessible(true);
-        return new ArrayList<>((List<Double>) f.get(r));
+    private static List<Double> getIngredientAmounts(Recipe r) {
+        List<Double> amounts = new ArrayList<>();
+        for (int i = 0; i < r.totalIngredientCount(); i++) {
+            amounts.add(r.getIngredientAmount(i));
+        }
+        return amounts;
     }
 
     private static int getServings(Recipe r) throws Exception {
@@ -118,6 +183,12 @@ public class RecipeTest {
         }
     }
 
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
     private static void fail(String message) {
         throw new AssertionError(message);
     }
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the ShoppingCart class.
+ */
+public class ShoppingCartTest {
+    public static void main(String[] args) {
+        testCombinesNormalizedNames();
+        testSortedOutput();
+        testFormatting();
+        testDoesNotModifyRecipes();
+        testEmptyAndInvalidInput();
+        testParallelMatchesSequential();
+        testBookRecipesMatchStandalone();
+        testSumsAcrossUnits();
+        testUnitsOfDifferentDimensions();
+        System.out.println("All ShoppingCart tests passed.");
+    }
+
+    private static void testCombinesNormalizedNames() {
+        Recipe a = new Recipe("Pancakes", 4);
+        a.addIngredient("Flour", 2);
+        a.addIngredient("Milk", 1.5);
+        Recipe b = new Recipe("Bread", 2);
+        b.addIngredient("  flour ", 3);
+        b.addIngredient("FLOUR", 0.5);
+
+        ShoppingCart cart = ShoppingCart.of(Arrays.asList(a, b));
+        assertEquals("distinct items", 2, cart.size());
+        assertTrue("flour summed", cart.getAmount("flour") == 5.5);
+        assertTrue("lookup is normalized", cart.getAmount(" MILK ") == 1.5);
+        assertTrue("missing item", cart.getAmount("eggs") == 0);
+        assertEquals("first spelling kept", "Flour", cart.getItems().get(0).getName());
+    }
+
+    private static void testSortedOutput() {
+        Recipe r = new Recipe("Mix", 1);
+        r.addIngredient("sugar", 1);
+        r.addIngredient("Butter", 1);
+        r.addIngredient("eggs", 1);
+        r.addIngredient("Almonds", 1);
+
+        List<Ingredient> items = ShoppingCart.of(Arrays.asList(r)).getItems();
+        assertEquals("sorted 0", "Almonds", items.get(0).getName());
+        assertEquals("sorted 1", "Butter", items.get(1).getName());
+        assertEquals("sorted 2", "eggs", items.get(2).getName());
+        assertEquals("sorted 3", "sugar", items.get(3).getName());
+    }
+
+    private static void testFormatting() {
+        Recipe a = new Recipe("A", 1);
+        a.addIngredient("salt", 0.125);
+        a.addIngredient("water", 2);
+        Recipe b = new Recipe("B", 1);
+        b.addIngredient("Salt", 0.125);
+        b.addIngredient("oil", 1.0 / 3);
+
+        assertEquals("formatted cart", "- 0.33 oil\n- 0.25 salt\n- 2 water\n",
+            ShoppingCart.of(Arrays.asList(a, b)).toString());
+    }
+
+    private static void testDoesNotModifyRecipes() {
+        Recipe a = new Recipe("A", 2);
+        a.addIngredient("Flour", 2);
+        Recipe b = new Recipe("B", 2);
+        b.addIngredient("flour", 3);
+        String before = a.toString() + b.toString();
+
+        ShoppingCart.of(Arrays.asList(a, b));
+        assertEquals("recipes unchanged", before, a.toString() + b.toString());
+        assertEquals("ingredient count unchanged", 1, a.totalIngredientCount());
+    }
+
+    private static void testEmptyAndInvalidInput() {
+        ShoppingCart empty = ShoppingCart.of(new ArrayList<Recipe>());
+        assertEquals("empty cart size", 0, empty.size());
+        assertEquals("empty cart text", "", empty.toString());
+
+        try {
+            ShoppingCart.of(null);
+            fail("null collection should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            ShoppingCart.of(Arrays.asList(new Recipe("A", 1), null));
+            fail("null recipe should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void testParallelMatchesSequential() {
+        String[] names = {"Flour", "sugar", "Eggs", "milk", "Butter", "salt", "Yeast"};
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < ShoppingCart.PARALLEL_THRESHOLD * 4; i++) {
+            Recipe r = new Recipe("Recipe " + i, 2);
+            r.addIngredient(names[i % names.length], 1);
+            r.addIngredient(names[(i * 3) % names.length].toUpperCase(), 0.5);
+            r.addIngredient("item " + (i % 1000), 2);
+            recipes.add(r);
+        }
+
+        ShoppingCart parallel = ShoppingCart.of(recipes);
+        ShoppingCart sequential = ShoppingCart.of(recipes.subList(0, ShoppingCart.PARALLEL_THRESHOLD - 1));
+        assertEquals("parallel item count", names.length + 1000, parallel.size());
+        assertTrue("sequential subset smaller", sequential.getAmount("flour") < parallel.getAmount("flour"));
+
+        double expectedFlour = 0;
+        for (Recipe r : recipes) {
+            for (int j = 0; j < r.totalIngredientCount(); j++) {
+                if (r.getIngredientName(j).equalsIgnoreCase("flour")) {
+                    expectedFlour += r.getIngredientAmount(j);
+                }
+            }
+        }
+        assertTrue("parallel sum", Math.abs(parallel.getAmount("FLOUR") - expectedFlour) < 1e-9);
+        assertEquals("parallel order", "Butter", parallel.getItems().get(0).getName());
+        assertEquals("parallel first spelling", "Flour", parallel.getItems().get(2).getName());
+    }
+
+    private static void testBookRecipesMatchStandalone() {
+        String[] names = {"Flour", " sugar", "FLOUR ", "Eggs", "eggs", "milk"};
+        for (int size : new int[] {10, ShoppingCart.PARALLEL_THRESHOLD * 3}) {
+            RecipeBook book = new RecipeBook();
+            List<Recipe> standalone = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Recipe a = new Recipe("R" + i, 2);
+                Recipe b = new Recipe("R" + i, 2);
+                for (int j = 0; j < 3; j++) {
+                    String name = names[(i + j * 5) % names.length];
+                    a.addIngredient(name, j + 0.25);
+                    b.addIngredient(name, j + 0.25);
+                }
+                book.addRecipe(a);
+                standalone.add(b);
+            }
+            // Recipes of one book share a dictionary and are grouped by id;
+            // standalone recipes each have their own and are grouped by name.
+            String byId = ShoppingCart.of(book.getAllRecipes()).toString();
+            String byName = ShoppingCart.of(standalone).toString();
+            assertEquals("same cart for " + size + " recipes", byName, byId);
+        }
+    }
+
+    private static void testSumsAcrossUnits() {
+        Recipe a = new Recipe("Toast", 1);
+        a.addIngredient("butter (tbsp)", 2);
+        a.addIngredient("olive oil (tsp)", 3);
+        Recipe b = new Recipe("Cake", 1);
+        b.addIngredient("Butter (cup)", 0.5);
+        b.addIngredient("olive oil (tbsp)", 1);
+        b.addIngredient("butter cookies", 4);
+
+        for (boolean inBook : new boolean[] {false, true}) {
+            List<Recipe> recipes = Arrays.asList(a, b);
+            if (inBook) {
+                RecipeBook book = new RecipeBook();
+                book.addAll(recipes);
+                recipes = book.getAllRecipes();
+            }
+            ShoppingCart cart = ShoppingCart.of(recipes);
+            assertEquals("items " + inBook, "- 0.63 Butter (cup)\n- 4 butter cookies\n- 2 olive oil (tbsp)\n",
+                cart.toString());
+            assertTrue("amount in cups " + inBook, Math.abs(cart.getAmount("butter (cup)") - 0.625) < 1e-9);
+            assertTrue("amount in tbsp " + inBook, Math.abs(cart.getAmount("BUTTER (Tbsp)") - 10) < 1e-9);
+            assertTrue("amount in ml " + inBook, Math.abs(cart.getAmount("olive oil (ml)") - 29.5735295625) < 1e-9);
+            assertTrue("no plain butter " + inBook, cart.getAmount("butter") == 0);
+            assertTrue("item keeps its unit " + inBook, cart.getItems().get(0).getUnit() == Unit.CUP);
+            assertEquals("item base name " + inBook, "Butter", cart.getItems().get(0).getBaseName());
+        }
+
+        // The largest unit is shown whichever recipe comes first.
+        assertEquals("order independent", ShoppingCart.of(Arrays.asList(a, b)).toString(),
+            ShoppingCart.of(Arrays.asList(b, a)).toString());
+    }
+
+    private static void testUnitsOfDifferentDimensions() {
+        Recipe r = new Recipe("Mix", 1);
+        r.addIngredient("flour (cup)", 2);
+        r.addIngredient("flour (g)", 100);
+        r.addIngredient("flour (kg)", 0.5);
+        r.addIngredient("flour", 1);
+        r.addIngredient("salt (pinch)", 1);
+        r.addIngredient("Salt (PINCH)", 2);
+
+        ShoppingCart cart = ShoppingCart.of(Arrays.asList(r));
+        assertEquals("volume, mass and counts kept apart",
+            "- 1 flour\n- 2 flour (cup)\n- 0.6 flour (kg)\n- 3 salt (pinch)\n", cart.toString());
+        assertTrue("mass in grams", Math.abs(cart.getAmount("flour (grams)") - 600) < 1e-9);
+        assertTrue("unknown units match by name", cart.getAmount("salt (pinch)") == 3);
+    }
+
+    // Helper methods
+    private static void assertEquals(String label, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail(label + " expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    private static void assertEquals(String label, int expected, int actual) {
+        if (expected != actual) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Tests for the Unit enum.
+ */
+public class UnitTest {
+    public static void main(String[] args) {
+        testForSymbol();
+        testDimensions();
+        testConvert();
+        testConvertRejectsOtherDimension();
+        System.out.println("All Unit tests passed.");
+    }
+
+    private static void testForSymbol() {
+        assertTrue("tbsp", Unit.forSymbol("tbsp") == Unit.TABLESPOON);
+        assertTrue("plural and case", Unit.forSymbol("Cups") == Unit.CUP);
+        assertTrue("periods and spaces", Unit.forSymbol(" fl.  oz ") == Unit.FLUID_OUNCE);
+        assertTrue("lbs", Unit.forSymbol("lbs") == Unit.POUND);
+        assertTrue("unknown", Unit.forSymbol("pinch") == null);
+        assertTrue("blank", Unit.forSymbol("  ") == null);
+        assertTrue("null", Unit.forSymbol(null) == null);
+        for (Unit unit : Unit.values()) {
+            assertTrue("own symbol " + unit, Unit.forSymbol(unit.getSymbol()) == unit);
+        }
+    }
+
+    private static void testDimensions() {
+        assertTrue("cup is volume", Unit.CUP.getDimension() == Unit.Dimension.VOLUME);
+        assertTrue("ounce is mass", Unit.OUNCE.getDimension() == Unit.Dimension.MASS);
+        assertTrue("volume canonical", Unit.Dimension.VOLUME.canonicalUnit() == Unit.MILLILITER);
+        assertTrue("mass canonical", Unit.Dimension.MASS.canonicalUnit() == Unit.GRAM);
+    }
+
+    private static void testConvert() {
+        assertEquals("tbsp per cup", 16, Unit.CUP.convert(1, Unit.TABLESPOON), 1e-9);
+        assertEquals("tsp per tbsp", 3, Unit.TABLESPOON.convert(1, Unit.TEASPOON), 1e-9);
+        assertEquals("grams per kg", 1000, Unit.KILOGRAM.toCanonical(1), 1e-9);
+        assertEquals("ounces per pound", 16, Unit.POUND.convert(1, Unit.OUNCE), 1e-9);
+        assertEquals("liters to ml", 1500, Unit.LITER.convert(1.5, Unit.MILLILITER), 1e-9);
+        assertTrue("same unit is exact", Unit.CUP.convert(0.1, Unit.CUP) == 0.1);
+    }
+
+    private static void testConvertRejectsOtherDimension() {
+        try {
+            Unit.CUP.convert(1, Unit.GRAM);
+            fail("volume to mass should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            Unit.CUP.convert(1, null);
+            fail("null target should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    // Helper methods
+    private static void assertEquals(String label, double expected, double actual, double eps) {
+        if (Math.abs(expected - actual) > eps) {
+            fail(label + " expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static void assertTrue(String label, boolean condition) {
+        if (!condition) {
+            fail(label + " expected true but was false");
+        }
+    }
+
+    private static void fail(String message) {
+        throw new AssertionError(message);
+    }
+}